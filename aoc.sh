@@ -0,0 +1,32 @@
+#!/bin/sh
+# Runs a solver in a JVM that maps an application class-data-sharing archive of all solvers, so short days are not
+# dominated by class loading. A jar and the archive are built into build/ on first use and rebuilt when src/ changes,
+# class-data sharing only accepts jars on the class path.
+#
+# Usage: ./aoc.sh <day> [args...]     e.g. ./aoc.sh 1
+#        ./aoc.sh <MainClass> [args...]  e.g. ./aoc.sh Runner 1 2 4 6
+set -e
+cd "$(dirname "$0")"
+
+jar=build/aoc.jar
+archive=build/aoc.jsa
+java=${JAVA:-java}
+
+if [ ! -f "$jar" ] || [ -n "$(find src -newer "$jar")" ]; then
+    rm -rf build/classes "$jar" "$archive"
+    javac -d build/classes src/*.java
+    jar --create --file "$jar" -C build/classes .
+fi
+
+if [ ! -f "$archive" ]; then
+    "$java" -XX:ArchiveClassesAtExit="$archive" -Xlog:cds=off -cp "$jar" Preload >&2
+fi
+
+main=${1:?usage: $0 <day|MainClass> [args...]}
+shift
+case "$main" in
+    [0-9]*) main=$(printf 'Day%02d' "$main") ;;
+esac
+
+# -Xshare:auto falls back to regular class loading if the archive does not match this JVM
+exec "$java" -XX:SharedArchiveFile="$archive" -Xshare:auto -cp "$jar" "$main" "$@"
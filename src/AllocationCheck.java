@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the bytes allocated by each solver phase on the shipped inputs and fails when a phase exceeds its budget,
+ * so hot loops that were made allocation-free stay that way.
+ * <p>
+ * Usage: {@code java AllocationCheck [--iterations 3] [day...]}, exits with 1 if any phase is over budget.
+ * <p>
+ * Each phase is run once to warm up and then measured as the minimum over the iterations, after the JIT has had a
+ * chance to remove allocations that escape analysis can eliminate. Allocations are summed over all live threads, so
+ * parallel streams are included. Budgets cover the data a phase keeps, such as the parsed input and its answers,
+ * plus some slack, but not per-iteration garbage in inner loops.
+ * <p>
+ * A few phases still allocate in their inner loops by design. They are marked {@link #UNCHECKED} with the reason next
+ * to their entry, are measured and reported, but cannot fail the check.
+ */
+public class AllocationCheck {
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+    private static final long UNCHECKED = -1;
+
+    private static final Map<Integer, Budget> BUDGETS = Map.ofEntries(
+        Map.entry(1, new Budget(KB, KB, KB)),
+        Map.entry(2, new Budget(256 * KB, KB, KB)),
+        Map.entry(3, new Budget(32 * KB, 4 * KB, 4 * KB)),
+        Map.entry(4, new Budget(256 * KB, KB, KB)),
+        Map.entry(5, new Budget(32 * KB, 8 * KB, 128 * KB)),
+        Map.entry(6, new Budget(4 * KB, KB, KB)),
+        Map.entry(7, new Budget(KB, 4 * KB, 4 * KB)),
+        Map.entry(8, new Budget(64 * KB, 256 * KB, 256 * KB)),
+        Map.entry(9, new Budget(128 * KB, 512 * KB, 512 * KB)),
+        Map.entry(10, new Budget(8 * KB, KB, 8 * KB)),
+        Map.entry(11, new Budget(8 * KB, 32 * KB, 32 * KB)),
+        Map.entry(12, new Budget(128 * KB, KB, KB)),
+        Map.entry(13, new Budget(8 * KB, KB, KB)),
+        Map.entry(14, new Budget(32 * KB, 128 * KB, 2 * MB)),
+        // Part 1 collects every covered x of the observed row in a set, part 2 the whole border of every sensor
+        Map.entry(15, new Budget(8 * KB, UNCHECKED, UNCHECKED)),
+        Map.entry(16, new Budget(128 * KB, 12 * MB, 5 * MB)),
+        Map.entry(17, new Budget(KB, 10 * MB, 16 * MB)),
+        Map.entry(18, new Budget(128 * KB, KB, 512 * KB)),
+        Map.entry(19, new Budget(16 * KB, 128 * KB, 16 * KB)),
+        Map.entry(20, new Budget(256 * KB, 512 * KB, 512 * KB)),
+        Map.entry(21, new Budget(MB, 256 * KB, 512 * KB)),
+        Map.entry(22, new Budget(256 * KB, 4 * MB, 4 * MB)),
+        Map.entry(23, new Budget(256 * KB, MB, MB)),
+        // Parse keeps one blizzard set per minute of the 600 minute period, 8192 longs each, 37.5 MB in all. The
+        // searches queue a boxed state per step and a distance array per crossing.
+        Map.entry(24, new Budget(40 * MB, UNCHECKED, UNCHECKED)),
+        Map.entry(25, new Budget(8 * KB, KB, KB))
+    );
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static int sink;
+
+    public static void main(String[] args) throws IOException {
+        var iterations = 3;
+        var days = new ArrayList<Integer>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--iterations")) {
+                iterations = Integer.parseInt(args[++i]);
+            } else {
+                days.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (days.isEmpty()) IntStream.rangeClosed(1, Solvers.all().size()).forEach(days::add);
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM cannot measure allocated bytes per thread");
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        var failures = 0;
+        System.out.printf("%-4s %-6s %14s %14s%n", "Day", "Phase", "Allocated", "Budget");
+        for (var day : days) {
+            failures += check(Solvers.get(day), Input.map(Solvers.inputPath(day)), BUDGETS.get(day), iterations);
+        }
+        if (failures > 0) {
+            System.out.printf("%d phases over budget%n", failures);
+            System.exit(1);
+        }
+    }
+
+    private static <T> int check(Solver<T> solver, Input input, Budget budget, int iterations) {
+        var parse = measure(() -> solver.parse(input.duplicate()), iterations);
+        var part1 = measure(() -> solver.part1(solver.parse(input.duplicate())), parse, iterations);
+        var part2 = measure(() -> solver.part2(solver.parse(input.duplicate())), parse, iterations);
+        return report(solver.day(), "parse", parse, budget.parse)
+            + report(solver.day(), "part1", part1, budget.part1)
+            + report(solver.day(), "part2", part2, budget.part2);
+    }
+
+    /**
+     * @param offset bytes of the setup inside {@code phase} that are not part of the measurement
+     */
+    private static long measure(Supplier<?> phase, long offset, int iterations) {
+        return Math.max(0, measure(phase, iterations) - offset);
+    }
+
+    private static long measure(Supplier<?> phase, int iterations) {
+        consume(phase.get());
+        var min = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            var before = allocatedBytes();
+            consume(phase.get());
+            min = Math.min(min, allocatedBytes() - before);
+        }
+        return min;
+    }
+
+    private static long allocatedBytes() {
+        return Arrays.stream(THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds()))
+            .filter(bytes -> bytes > 0)
+            .sum();
+    }
+
+    private static int report(int day, String phase, long allocated, long budget) {
+        var over = budget != UNCHECKED && allocated > budget;
+        System.out.printf("%-4d %-6s %14s %14s%s%n", day, phase, format(allocated),
+            budget == UNCHECKED ? "unchecked" : format(budget), over ? "  OVER BUDGET" : "");
+        return over ? 1 : 0;
+    }
+
+    private static String format(long bytes) {
+        if (bytes >= MB) return "%.1f MB".formatted((double) bytes / MB);
+        if (bytes >= KB) return "%.1f KB".formatted((double) bytes / KB);
+        return bytes + " B";
+    }
+
+    private static void consume(Object result) {
+        sink += result.hashCode();
+    }
+
+    /**
+     * Most bytes each phase may allocate, or {@link #UNCHECKED}.
+     */
+    record Budget(long parse, long part1, long part2) {
+    }
+}
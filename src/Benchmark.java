@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Measures parse, part 1 and part 2 of each day separately, at several multiples of the shipped input size.
+ * <p>
+ * Usage: {@code java Benchmark [--days 1,16,24] [--scales 1,10,100] [--warmup 3] [--iterations 5] [--seed 2022]}
+ * <p>
+ * Inputs come from {@link Generators}, scaled from the size of the shipped input, so every scale of a day has the
+ * same shape. Some solvers grow quadratically or worse with their input, pick the scales accordingly.
+ */
+public class Benchmark {
+    private static int sink;
+
+    public static void main(String[] args) throws IOException {
+        var options = Options.parse(args);
+
+        System.out.printf("%-4s %6s  %-6s %12s %12s%n", "Day", "Scale", "Phase", "Avg ms", "Min ms");
+        for (var day : options.days) {
+            var solver = Solvers.get(day);
+            for (var scale : options.scales) {
+                var file = Files.createTempFile("input%02d-".formatted(day), ".txt");
+                try {
+                    Generators.generate(day, Generators.baseSize(day) * scale, options.seed, file);
+                    benchmark(solver, Input.map(file), scale, options);
+                } finally {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static <T> void benchmark(Solver<T> solver, Input input, int scale, Options options) {
+        report(solver.day(), scale, "parse", measure(() -> solver.parse(input.duplicate()), options));
+
+        var parsed = solver.parse(input.duplicate());
+        report(solver.day(), scale, "part1", measure(() -> solver.part1(parsed), options));
+        report(solver.day(), scale, "part2", measure(() -> solver.part2(parsed), options));
+    }
+
+    private static long[] measure(Supplier<?> phase, Options options) {
+        for (int i = 0; i < options.warmup; i++) {
+            consume(phase.get());
+        }
+
+        var samples = new long[options.iterations];
+        for (int i = 0; i < samples.length; i++) {
+            var start = System.nanoTime();
+            consume(phase.get());
+            samples[i] = System.nanoTime() - start;
+        }
+        return samples;
+    }
+
+    private static void report(int day, int scale, String phase, long[] samples) {
+        var average = Arrays.stream(samples).average().orElseThrow() / 1e6;
+        var min = Arrays.stream(samples).min().orElseThrow() / 1e6;
+        System.out.printf("%-4d %5dx  %-6s %12.3f %12.3f%n", day, scale, phase, average, min);
+    }
+
+    private static void consume(Object result) {
+        sink += Objects.hashCode(result);
+    }
+
+    record Options(List<Integer> days, List<Integer> scales, int warmup, int iterations, long seed) {
+        static Options parse(String[] args) {
+            var days = IntStream.rangeClosed(1, Solvers.all().size()).boxed().toList();
+            var scales = List.of(1, 10, 100);
+            var warmup = 3;
+            var iterations = 5;
+            var seed = 2022L;
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--days" -> days = parseList(args[++i]);
+                    case "--scales" -> scales = parseList(args[++i]);
+                    case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                    case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            return new Options(days, scales, warmup, iterations, seed);
+        }
+
+        private static List<Integer> parseList(String value) {
+            return Arrays.stream(value.split(","))
+                .map(Integer::parseInt)
+                .toList();
+        }
+    }
+}
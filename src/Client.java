@@ -0,0 +1,103 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sends days to a running {@link Daemon} and prints answers and timings in the same form as {@link Runner}.
+ * <p>
+ * Usage: {@code java Client [--socket path] [day[=input]...]}, all days with their shipped inputs by default.
+ * <p>
+ * All requests are written up front on one connection while the answers are read back, so the daemon can work on
+ * them concurrently. Timings are the ones measured inside the daemon, the batch wall time includes the transfer.
+ */
+public class Client {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var socket = Daemon.defaultSocket();
+        var requests = new ArrayList<Request>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--socket")) {
+                socket = Path.of(args[++i]);
+            } else {
+                requests.add(Request.parse(args[i]));
+            }
+        }
+        if (requests.isEmpty()) {
+            for (var solver : Solvers.all()) {
+                requests.add(new Request(solver.day(), Solvers.inputPath(solver.day())));
+            }
+        }
+
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            var start = System.nanoTime();
+            var sender = new Thread(() -> send(channel, requests), "sender");
+            sender.start();
+
+            var results = new Runner.DayResult[requests.size()];
+            var failed = false;
+            for (int i = 0; i < requests.size(); i++) {
+                var frame = Daemon.readFrame(channel);
+                if (frame == null) throw new EOFException("Daemon closed the connection");
+
+                var response = Daemon.Response.decode(frame);
+                if (response.error() != null) {
+                    System.err.printf("Day %02d failed: %s%n", response.day(), response.error());
+                    failed = true;
+                } else {
+                    results[response.id()] = response.result();
+                }
+            }
+            var wallTime = System.nanoTime() - start;
+            sender.join();
+
+            Runner.print(Arrays.stream(results).filter(Objects::nonNull).toList(), wallTime);
+            if (failed) System.exit(1);
+        }
+    }
+
+    private static void send(SocketChannel channel, List<Request> requests) {
+        try {
+            for (int id = 0; id < requests.size(); id++) {
+                var request = requests.get(id);
+                try (var file = FileChannel.open(request.input)) {
+                    if (file.size() > Daemon.MAX_FRAME_BYTES - 2 * Integer.BYTES) {
+                        throw new IOException(request.input + " is too large to send, the daemon takes "
+                            + Daemon.MAX_FRAME_BYTES + " bytes per frame");
+                    }
+                    var input = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                    var header = ByteBuffer.allocate(2 * Integer.BYTES).putInt(id).putInt(request.day).flip();
+                    Daemon.writeFrame(channel, header, input);
+                }
+            }
+            channel.shutdownOutput();
+        } catch (IOException e) {
+            // Closing the channel also ends the wait for answers in the main thread
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    record Request(int day, Path input) {
+        static Request parse(String argument) {
+            var separator = argument.indexOf('=');
+            if (separator == -1) {
+                var day = Integer.parseInt(argument);
+                return new Request(day, Solvers.inputPath(day));
+            }
+            return new Request(Integer.parseInt(argument.substring(0, separator)),
+                Path.of(argument.substring(separator + 1)));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+
+/**
+ * Keeps all solvers loaded in one JVM and answers requests over a Unix domain socket, so repeated runs execute
+ * JIT compiled code instead of starting a cold JVM per day. {@link Client} is the matching command line client.
+ * <p>
+ * Usage: {@code java Daemon [--cache] [socket]}, the socket defaults to {@code aoc.sock} in the temp directory.
+ * With {@code --cache} answers are served from a {@link ResultCache} when the same input was solved before.
+ * <p>
+ * Every message is a frame of an int length followed by that many bytes, all numbers big endian. A frame longer
+ * than {@link #MAX_FRAME_BYTES} or a request without id and day ends the connection, once the requests before it
+ * are answered.
+ * A request is {@code int id, int day, byte[] input}. A response is {@code int id, int day, byte ok}, followed by
+ * the cache status ordinal, wall and cpu nanos of parse, part 1 and part 2 and both answers when ok, or by an error
+ * message otherwise.
+ * Strings are an int length and UTF-8 bytes.
+ * <p>
+ * Requests on one connection may be pipelined. They are solved concurrently and each response is written as soon
+ * as it is ready, so responses can arrive out of order and are matched by id.
+ */
+public class Daemon {
+    // Larger frames are refused before anything is allocated for them
+    static final int MAX_FRAME_BYTES = 256 * 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        var cached = args.length > 0 && args[0].equals("--cache");
+        var cache = cached ? ResultCache.open() : null;
+        var rest = cached ? 1 : 0;
+        var socket = args.length > rest ? Path.of(args[rest]) : defaultSocket();
+        Files.deleteIfExists(socket);
+
+        var workers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteSocket(socket)));
+            System.out.println("Listening on " + socket);
+
+            var connections = 0;
+            while (true) {
+                var channel = server.accept();
+                new Thread(() -> serve(channel, workers, cache), "connection-" + ++connections).start();
+            }
+        }
+    }
+
+    static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "aoc.sock");
+    }
+
+    private static void serve(SocketChannel channel, ExecutorService workers, ResultCache cache) {
+        // The workers are shared by all connections, so this one waits for its own requests instead of a shutdown
+        var inFlight = new Phaser(1);
+        try (channel) {
+            try {
+                ByteBuffer request;
+                while ((request = readFrame(channel)) != null) {
+                    if (request.remaining() < 2 * Integer.BYTES) {
+                        throw new IOException("Request of " + request.remaining() + " bytes has no id and day");
+                    }
+                    var id = request.getInt();
+                    var day = request.getInt();
+                    var input = Input.of(request);
+                    inFlight.register();
+                    workers.execute(() -> {
+                        try {
+                            answer(channel, id, day, input, cache);
+                        } finally {
+                            inFlight.arriveAndDeregister();
+                        }
+                    });
+                }
+            } finally {
+                // Also after a failed read, requests already taken are answered before the channel is closed
+                inFlight.arriveAndAwaitAdvance();
+            }
+        } catch (IOException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Solves the request and writes the response. Whatever goes wrong while solving or encoding, the client waits for
+     * an answer to this id, so it gets an error response instead.
+     */
+    private static void answer(SocketChannel channel, int id, int day, Input input, ResultCache cache) {
+        ByteBuffer response;
+        try {
+            response = new Response(id, day, Runner.run(Solvers.get(day), input, cache), null).encode();
+        } catch (RuntimeException | Error e) {
+            response = new Response(id, day, null, e.toString()).encode();
+        }
+        try {
+            synchronized (channel) {
+                writeFrame(channel, response);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not answer request " + id + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return payload of the next frame, or null if the channel was closed between frames
+     * @throws IOException also if the frame length is negative or above {@link #MAX_FRAME_BYTES}
+     */
+    static ByteBuffer readFrame(ReadableByteChannel channel) throws IOException {
+        var header = ByteBuffer.allocate(Integer.BYTES);
+        if (!readFully(channel, header, true)) return null;
+
+        var length = header.flip().getInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Frame length " + length + " outside 0.." + MAX_FRAME_BYTES);
+        }
+        var payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, false);
+        return payload.flip();
+    }
+
+    static void writeFrame(GatheringByteChannel channel, ByteBuffer... parts) throws IOException {
+        var length = 0;
+        for (var part : parts) {
+            length += part.remaining();
+        }
+        var buffers = new ByteBuffer[parts.length + 1];
+        buffers[0] = ByteBuffer.allocate(Integer.BYTES).putInt(length).flip();
+        System.arraycopy(parts, 0, buffers, 1, parts.length);
+
+        var remaining = (long) Integer.BYTES + length;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean endAllowed)
+        throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                if (endAllowed && buffer.position() == 0) return false;
+                throw new EOFException("Connection closed in the middle of a frame");
+            }
+        }
+        return true;
+    }
+
+    private static void deleteSocket(Path socket) {
+        try {
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + socket + ": " + e.getMessage());
+        }
+    }
+
+    record Response(int id, int day, Runner.DayResult result, String error) {
+        ByteBuffer encode() {
+            if (error != null) {
+                var message = error.getBytes(StandardCharsets.UTF_8);
+                return ByteBuffer.allocate(3 * Integer.BYTES + 1 + message.length)
+                    .putInt(id)
+                    .putInt(day)
+                    .put((byte) 0)
+                    .putInt(message.length)
+                    .put(message)
+                    .flip();
+            }
+
+            var part1 = String.valueOf(result.part1().value()).getBytes(StandardCharsets.UTF_8);
+            var part2 = String.valueOf(result.part2().value()).getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(4 * Integer.BYTES + 2 + 6 * Long.BYTES + part1.length + part2.length)
+                .putInt(id)
+                .putInt(day)
+                .put((byte) 1)
+                .put((byte) result.cache().ordinal())
+                .putLong(result.parse().wallNanos())
+                .putLong(result.parse().cpuNanos())
+                .putLong(result.part1().wallNanos())
+                .putLong(result.part1().cpuNanos())
+                .putLong(result.part2().wallNanos())
+                .putLong(result.part2().cpuNanos())
+                .putInt(part1.length)
+                .put(part1)
+                .putInt(part2.length)
+                .put(part2)
+                .flip();
+        }
+
+        static Response decode(ByteBuffer frame) {
+            var id = frame.getInt();
+            var day = frame.getInt();
+            if (frame.get() == 0) return new Response(id, day, null, readString(frame));
+
+            var cache = ResultCache.Status.values()[frame.get()];
+            var parse = new Runner.Timed<>(null, frame.getLong(), frame.getLong());
+            var part1Wall = frame.getLong();
+            var part1Cpu = frame.getLong();
+            var part2Wall = frame.getLong();
+            var part2Cpu = frame.getLong();
+            var part1 = new Runner.Timed<>(readString(frame), part1Wall, part1Cpu);
+            var part2 = new Runner.Timed<>(readString(frame), part2Wall, part2Cpu);
+            return new Response(id, day, new Runner.DayResult(day, parse, part1, part2, cache), null);
+        }
+
+        private static String readString(ByteBuffer frame) {
+            var bytes = new byte[frame.getInt()];
+            frame.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
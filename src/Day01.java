@@ -1,39 +1,236 @@
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 public class Day01 {
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+    // Inputs already in memory are split finer, the chunks only need to keep the threads busy
+    private static final int INPUT_CHUNK_SIZE = 4 * 1024 * 1024;
+    // Largest region mapped at once while looking for the blank line that starts a chunk
+    private static final int MAX_WINDOW = 1024 * 1024;
+
+    /**
+     * Usage: {@code java Day01 [input] [k]}, prints the largest group and the sum of the {@code k} largest groups,
+     * three by default. The file is read in chunks in parallel, so it may be larger than memory.
+     */
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input01.txt"));
+        var path = Path.of(args.length > 0 ? args[0] : "input01.txt");
+        var k = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        var largest = largestGroups(path, k, CHUNK_SIZE);
+
+        System.out.println(part1(largest));
+        System.out.println(sum(largest, k));
+    }
+
+    /**
+     * @return the three largest group sums, largest first
+     */
+    static long[] parse(Input input) {
+        return largestGroups(input, 3, INPUT_CHUNK_SIZE);
+    }
+
+    // Part 1 maximum
+    static long part1(long[] largest) {
+        return largest.length > 0 ? largest[0] : 0;
+    }
+
+    // Part 2 sum top three
+    static long part2(long[] largest) {
+        return sum(largest, 3);
+    }
+
+    private static long sum(long[] largest, int count) {
+        var sum = 0L;
+        for (int i = 0; i < Math.min(count, largest.length); i++) {
+            sum += largest[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Splits the file into chunks of about {@code chunkSize} bytes that start at a group, sums the groups of every
+     * chunk in parallel and merges the largest {@code k} of each. Only the chunk boundaries and {@code k} sums per
+     * chunk are kept in memory, the chunks themselves are mapped.
+     *
+     * @return the {@code k} largest group sums, largest first
+     */
+    static long[] largestGroups(Path path, int k, long chunkSize) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var starts = new ArrayList<Long>();
+            for (var start = 0L; start < size; start = groupStart(channel, start + chunkSize)) {
+                starts.add(start);
+            }
+            starts.add(size);
+
+            return IntStream.range(0, starts.size() - 1)
+                .parallel()
+                .mapToObj(i -> largestGroups(map(channel, starts.get(i), starts.get(i + 1)), k))
+                .reduce(TopK::merge)
+                .orElseGet(() -> new TopK(k))
+                .sorted();
+        }
+    }
 
-        var maximums = new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
-        var current = 0;
+    /**
+     * Like {@link #largestGroups(Path, int, long)} for an input that is already in memory, summed in one go when it
+     * is no larger than a chunk.
+     */
+    static long[] largestGroups(Input input, int k, int chunkSize) {
+        if (input.length() - input.position() <= chunkSize) return largestGroups(input, k).sorted();
 
-        for (var line : input) {
-            if (line.isBlank()) {
-                insertIfNeeded(maximums, current);
+        var starts = new ArrayList<Integer>();
+        for (var start = input.position(); start < input.length(); start = groupStart(input, start + chunkSize)) {
+            starts.add(start);
+        }
+        starts.add(input.length());
+
+        return IntStream.range(0, starts.size() - 1)
+            .parallel()
+            .mapToObj(i -> largestGroups(input.slice(starts.get(i), starts.get(i + 1)), k))
+            .reduce(TopK::merge)
+            .orElseGet(() -> new TopK(k))
+            .sorted();
+    }
+
+    static TopK largestGroups(Input input, int k) {
+        var largest = new TopK(k);
+        var current = 0L;
+        // A chunk ends with the blank line after its last group, which must not count as another, empty group
+        var inGroup = false;
+
+        while (input.hasNext()) {
+            if (input.isLineEnd()) {
+                if (inGroup) largest.offer(current);
                 current = 0;
+                inGroup = false;
+                input.skipLine();
                 continue;
             }
 
-            var calories = Integer.parseInt(line);
-            current += calories;
+            current += input.nextLong();
+            inGroup = true;
+            input.skipLine();
         }
-        insertIfNeeded(maximums, current);
+        if (inGroup) largest.offer(current);
+        return largest;
+    }
 
-        // Part 1 maximum
-        System.out.println(maximums[0]);
-        // Part 2 sum top three
-        System.out.println(maximums[0] + maximums[1] + maximums[2]);
+    /**
+     * @return index just past the first blank line at or after {@code from}, or the input length if there is none
+     */
+    private static int groupStart(Input input, int from) {
+        var length = input.length();
+        for (int i = input.indexOf((byte) '\n', Math.min(from, length)); i + 1 < length;
+             i = input.indexOf((byte) '\n', i + 1)) {
+            if (input.get(i + 1) == '\n') return i + 2;
+        }
+        return length;
     }
 
-    private static void insertIfNeeded(int[] maximums, int current) {
-        for (int i = 0; i < maximums.length; i++) {
-            if (current > maximums[i]) {
-                var old = maximums[i];
-                maximums[i] = current;
-                current = old;
+    /**
+     * @return offset just past the first blank line at or after {@code from}, or the file size if there is none
+     */
+    private static long groupStart(FileChannel channel, long from) throws IOException {
+        var size = channel.size();
+        if (from >= size) return size;
+
+        for (var window = 4096; ; window = Math.min(2 * window, MAX_WINDOW)) {
+            var length = (int) Math.min(window, size - from);
+            var region = Input.map(channel, from, length);
+            for (int i = region.indexOf((byte) '\n', 0); i + 1 < length; i = region.indexOf((byte) '\n', i + 1)) {
+                if (region.get(i + 1) == '\n') return from + i + 2;
             }
+            if (from + length == size) return size;
+            // The last byte is scanned again, it may be the first of the two line feeds
+            from += length - 1;
+        }
+    }
+
+    private static Input map(FileChannel channel, long from, long to) {
+        try {
+            return Input.map(channel, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The {@code k} largest values offered so far, kept in a min-heap so the smallest of them is replaced first.
+     */
+    static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int k) {
+            if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+            heap = new long[k];
+        }
+
+        void offer(long value) {
+            if (size < heap.length) {
+                heap[size] = value;
+                siftUp(size++);
+            } else if (value > heap[0]) {
+                heap[0] = value;
+                siftDown(0);
+            }
+        }
+
+        TopK merge(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * @return the values, largest first
+         */
+        long[] sorted() {
+            var values = Arrays.copyOf(heap, size);
+            Arrays.sort(values);
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                var tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+            return values;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                var parent = (index - 1) / 2;
+                if (heap[parent] <= heap[index]) return;
+
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                var smallest = index;
+                var left = 2 * index + 1;
+                var right = left + 1;
+                if (left < size && heap[left] < heap[smallest]) smallest = left;
+                if (right < size && heap[right] < heap[smallest]) smallest = right;
+                if (smallest == index) return;
+
+                swap(smallest, index);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            var tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
         }
     }
 }
@@ -1,33 +1,100 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Arrays;
 
 public class Day02 {
+    // A round is "O S\n", both letters are told apart by their two lowest bits: A, B, C are 1, 2, 3, X, Y, Z 0, 1, 2
+    private static final int ROUND_LENGTH = 4;
+    private static final long TWO_ROUNDS_MASK = 0xFCFF_FCFF_FCFF_FCFFL;
+    private static final long TWO_ROUNDS = 0x4020_580A_4020_580AL;
+    private static final long INVALID = Long.MIN_VALUE;
+    // Rounds after which the packed part 1 sums are moved out, before they could overflow into part 2
+    private static final int FLUSH_ROUNDS = 1 << 24;
+    /**
+     * Part 1 score in the low and part 2 score in the high 32 bits, indexed by {@link #index}, or {@link #INVALID}.
+     */
+    private static final long[] SCORES = scores();
+
     public static void main(String[] args) throws IOException {
-        var plays = Files.readAllLines(Path.of("input02.txt"))
-            .stream()
-            .map(Play::parse)
-            .toList();
+        var scores = parse(Input.map(Path.of("input02.txt")));
+
+        System.out.println(part1(scores));
+        System.out.println(part2(scores));
+    }
+
+    /**
+     * Scores both parts in one pass. Two well-formed rounds are read as one long and scored by table lookups,
+     * anything else such as a last line without line feed or CRLF line ends is scored a round at a time.
+     */
+    static Scores parse(Input input) {
+        var part1 = 0L;
+        var part2 = 0L;
+        var flags = 0L;
+        var position = 0;
+        var length = input.length();
+        while (position < length) {
+            var packed = 0L;
+            var blockEnd = (int) Math.min(length, position + (long) FLUSH_ROUNDS * ROUND_LENGTH);
+            while (position < blockEnd) {
+                if (position + Long.BYTES <= blockEnd) {
+                    var word = input.getLong(position);
+                    if ((word & TWO_ROUNDS_MASK) == TWO_ROUNDS) {
+                        var first = SCORES[index((int) (word >>> 56), (int) (word >>> 40))];
+                        var second = SCORES[index((int) (word >>> 24), (int) (word >>> 8))];
+                        flags |= first | second;
+                        packed += first + second;
+                        position += 2 * ROUND_LENGTH;
+                        continue;
+                    }
+                }
+                input.position(position);
+                if (position + 2 >= length || input.get(position + 1) != ' ') {
+                    throw new IllegalArgumentException("Unable to parse round " + input.nextLine());
+                }
+                var score = SCORES[index(checkLetter(input.next(), 'A'), checkLetter(input.get(position + 2), 'X'))];
+                flags |= score;
+                packed += score;
+                input.skipLine();
+                position = input.position();
+            }
+            if (flags < 0) throw new IllegalArgumentException("Unable to parse round before " + position);
+
+            part1 += packed & 0xFFFF_FFFFL;
+            part2 += packed >>> 32;
+        }
+        return new Scores(part1, part2);
+    }
 
-        part1(plays);
-        part2(plays);
+    static long part1(Scores scores) {
+        return scores.part1;
     }
 
-    private static void part1(List<Play> plays) {
-        var sum = plays.stream()
-            .mapToInt(Play::part1)
-            .sum();
+    static long part2(Scores scores) {
+        return scores.part2;
+    }
 
-        System.out.println(sum);
+    private static int index(int opponent, int selection) {
+        return (opponent & 3) << 2 | selection & 3;
     }
 
-    private static void part2(List<Play> plays) {
-        var sum = plays.stream()
-            .mapToInt(Play::part2)
-            .sum();
+    private static int checkLetter(byte letter, char first) {
+        if (letter < first || letter > first + 2) {
+            throw new IllegalArgumentException("Unable to parse letter " + (char) letter);
+        }
+        return letter;
+    }
 
-        System.out.println(sum);
+    private static long[] scores() {
+        var scores = new long[16];
+        Arrays.fill(scores, INVALID);
+        for (var opponent : Selection.values()) {
+            for (var letter : Selection.values()) {
+                var part1 = letter.scoreAgainst(opponent);
+                var part2 = opponent.getForOutcome(Outcome.values()[letter.ordinal()]).scoreAgainst(opponent);
+                scores[index('A' + opponent.ordinal(), 'X' + letter.ordinal())] = (long) part2 << 32 | part1;
+            }
+        }
+        return scores;
     }
 
     enum Selection {
@@ -35,15 +102,6 @@ public class Day02 {
         PAPER,
         SCISSORS;
 
-        static Selection fromLetter(String letter) {
-            return switch (letter) {
-                case "A", "X" -> ROCK;
-                case "B", "Y" -> PAPER;
-                case "C", "Z" -> SCISSORS;
-                default -> throw new IllegalArgumentException("Unable to parse letter " + letter);
-            };
-        }
-
         int score() {
             return switch (this) {
                 case ROCK -> 1;
@@ -52,15 +110,15 @@ public class Day02 {
             };
         }
 
-        Selection getForOutcome(Selection other, Outcome outcome) {
+        Selection getForOutcome(Outcome outcome) {
             return switch (outcome) {
-                case DRAW -> other;
-                case WIN -> switch (other) {
+                case DRAW -> this;
+                case WIN -> switch (this) {
                     case ROCK -> PAPER;
                     case PAPER -> SCISSORS;
                     case SCISSORS -> ROCK;
                 };
-                case LOSE -> switch (other) {
+                case LOSE -> switch (this) {
                     case ROCK -> SCISSORS;
                     case PAPER -> ROCK;
                     case SCISSORS -> PAPER;
@@ -83,31 +141,9 @@ public class Day02 {
     }
 
     enum Outcome {
-        LOSE, DRAW, WIN;
-
-        static Outcome fromString(String string) {
-            return switch (string) {
-                case "X" -> LOSE;
-                case "Y" -> DRAW;
-                case "Z" -> WIN;
-                default -> throw new IllegalArgumentException("Unable to parse letter " + string);
-            };
-        }
+        LOSE, DRAW, WIN
     }
 
-    record Play(Selection opponent, String selection) {
-        static Play parse(String play) {
-            var parts = play.split(" ");
-            return new Play(Selection.fromLetter(parts[0]), parts[1]);
-        }
-
-        int part1() {
-            return Selection.fromLetter(selection).scoreAgainst(opponent);
-        }
-
-        int part2() {
-            var selection = opponent.getForOutcome(opponent, Outcome.fromString(selection()));
-            return selection.scoreAgainst(opponent);
-        }
+    record Scores(long part1, long part2) {
     }
 }
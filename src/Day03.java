@@ -1,76 +1,81 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 public class Day03 {
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input03.txt"));
+        var input = parse(Input.map(Path.of("input03.txt")));
 
-        part1(input);
-        part2(input);
+        System.out.println(part1(input));
+        System.out.println(part2(input));
     }
 
-    private static void part1(List<String> input) {
-        var sum = input.parallelStream()
-            .mapToInt(Day03::findRepeated)
-            .sum();
-        System.out.println(sum);
-    }
-
-    private static void part2(List<String> input) {
-        var sum = 0;
-        for (int i = 0; i < input.size(); i += 3) {
-            sum += findBadge(input.get(i), input.get(i + 1), input.get(i + 2));
+    static Rucksacks parse(Input input) {
+        var left = new long[64];
+        var right = new long[64];
+        var count = 0;
+        while (input.hasNext()) {
+            if (count == left.length) {
+                left = Arrays.copyOf(left, count * 2);
+                right = Arrays.copyOf(right, count * 2);
+            }
+            var start = input.position();
+            var middle = start + (input.lineEnd() - start) / 2;
+            left[count] = items(input, start, middle);
+            right[count] = items(input, middle, input.lineEnd());
+            count++;
+            input.skipLine();
         }
-        System.out.println(sum);
+        return new Rucksacks(left, right, count);
     }
 
-    private static int findRepeated(String s) {
-        var left = new boolean[52];
-        var right = new boolean[52];
+    static int part1(Rucksacks rucksacks) {
+        return IntStream.range(0, rucksacks.count)
+            .parallel()
+            .map(i -> priority(rucksacks.left[i] & rucksacks.right[i]))
+            .sum();
+    }
 
-        var chars = s.toCharArray();
-        for (int i = 0; i < chars.length / 2; i++) {
-            var leftPriority = toPriority(chars[i]);
-            var rightPriority = toPriority(chars[i + chars.length / 2]);
-            left[leftPriority] = true;
-            right[rightPriority] = true;
+    static int part2(Rucksacks rucksacks) {
+        return IntStream.range(0, rucksacks.count / 3)
+            .parallel()
+            .map(group -> priority(rucksacks.all(3 * group) & rucksacks.all(3 * group + 1) & rucksacks.all(3 * group + 2)))
+            .sum();
+    }
 
-            if (left[leftPriority] && right[leftPriority]) return leftPriority + 1;
-            if (left[rightPriority] && right[rightPriority]) return rightPriority + 1;
+    /**
+     * @return mask with the bit of every item's priority set
+     */
+    private static long items(Input input, int from, int to) {
+        var mask = 0L;
+        for (int i = from; i < to; i++) {
+            mask |= 1L << toPriority(input.get(i));
         }
-
-        return 0;
+        return mask;
     }
 
-    private static int findBadge(String s1, String s2, String s3) {
-        var found = new boolean[3][52];
-
-        var chars = new char[3][];
-        chars[0] = s1.toCharArray();
-        chars[1] = s2.toCharArray();
-        chars[2] = s3.toCharArray();
-        var maxLen = Math.max(chars[0].length, Math.max(chars[1].length, chars[2].length));
-        for (int i = 0; i < maxLen; i++) {
-            for (int j = 0; j < chars.length; j++) {
-                if (chars[j].length <= i) continue;
-
-                var priority = toPriority(chars[j][i]);
-                found[j][priority] = true;
-                if (found[0][priority] && found[1][priority] && found[2][priority]) {
-                    return priority + 1;
-                }
-            }
-        }
-        return 0;
+    /**
+     * @return priority of the lowest item in the mask, or 0 if it is empty
+     */
+    private static int priority(long common) {
+        return common == 0 ? 0 : Long.numberOfTrailingZeros(common);
     }
 
     private static int toPriority(int value) {
         if (value <= 'Z') {
-            return value - 65 + 27 - 1;
+            return value - 'A' + 27;
         } else {
-            return value - 97 + 1 - 1;
+            return value - 'a' + 1;
+        }
+    }
+
+    /**
+     * Items of both compartments of every rucksack as masks with bit {@code p} set for priority {@code p}.
+     */
+    record Rucksacks(long[] left, long[] right, int count) { // NOSONAR
+        long all(int rucksack) {
+            return left[rucksack] | right[rucksack];
         }
     }
 }
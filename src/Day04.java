@@ -1,37 +1,68 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public class Day04 {
+    /**
+     * Usage: {@code java Day04 [input] [min-max...]}, with queries also indexes all ranges and prints how many
+     * overlap each query, the largest number sharing a section and the number of covered sections.
+     * {@link RangeIndexCheck} compares the index with scans over all ranges.
+     */
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input04.txt"))
-            .stream()
-            .map(Pair::parse)
-            .toList();
+        var input = parse(Input.map(Path.of(args.length > 0 ? args[0] : "input04.txt")));
 
-        part1(input);
-        part2(input);
+        System.out.println(part1(input));
+        System.out.println(part2(input));
+        if (args.length > 1) {
+            var index = RangeIndex.of(ranges(input));
+            for (int i = 1; i < args.length; i++) {
+                var query = Range.parse(Input.of(args[i]));
+                System.out.println(query.min + "-" + query.max + ": " + index.countOverlapping(query.min, query.max));
+            }
+            System.out.println("depth: " + index.maxDepth());
+            System.out.println("covered: " + index.coveredSections());
+        }
     }
 
-    private static void part1(List<Pair> input) {
-        var fullyContained = input.stream()
+    static List<Pair> parse(Input input) {
+        var pairs = new ArrayList<Pair>();
+        while (input.hasNext()) {
+            pairs.add(Pair.parse(input));
+            input.skipLine();
+        }
+        return pairs;
+    }
+
+    static long part1(List<Pair> input) {
+        return input.stream()
             .filter(Pair::hasFullyContained)
             .count();
-        System.out.println(fullyContained);
     }
 
-    private static void part2(List<Pair> input) {
-        var overlapped = input.stream()
+    static long part2(List<Pair> input) {
+        return input.stream()
             .filter(Pair::hasOverlap)
             .count();
-        System.out.println(overlapped);
+    }
+
+    /**
+     * @return both ranges of every pair, so range {@code 2i} and {@code 2i + 1} belong to pair {@code i}
+     */
+    static List<Range> ranges(List<Pair> pairs) {
+        var ranges = new ArrayList<Range>(2 * pairs.size());
+        for (var pair : pairs) {
+            ranges.add(pair.first);
+            ranges.add(pair.second);
+        }
+        return ranges;
     }
 
     record Pair(Range first, Range second) {
-        static Pair parse(String string) {
-            var parts = string.split(",");
-            return new Pair(Range.parse(parts[0]), Range.parse(parts[1]));
+        static Pair parse(Input input) {
+            return new Pair(Range.parse(input), Range.parse(input));
         }
 
         public boolean hasFullyContained() {
@@ -45,9 +76,8 @@ public class Day04 {
 
     record Range(int min, int max) {
 
-        public static Range parse(String string) {
-            var ranges = string.split("-");
-            return new Range(Integer.parseInt(ranges[0]), Integer.parseInt(ranges[1]));
+        public static Range parse(Input input) {
+            return new Range(input.nextInt(), input.nextInt());
         }
 
         public boolean fullyContains(Range second) {
@@ -58,4 +88,144 @@ public class Day04 {
             return min <= second.max && second.min <= max;
         }
     }
+
+    /**
+     * Static interval index over ranges. Ranges are sorted by their start and every position of that order also
+     * stores the largest end below it in an implicit balanced tree, so reporting the ranges that overlap a query
+     * skips every subtree that ends before it. Counting only needs the sorted starts and ends, two binary searches.
+     */
+    static final class RangeIndex {
+        private final int[] ids;
+        private final int[] mins;
+        private final int[] maxs;
+        private final int[] subtreeMax;
+        private final int[] sortedMaxs;
+
+        private RangeIndex(int[] ids, int[] mins, int[] maxs) {
+            this.ids = ids;
+            this.mins = mins;
+            this.maxs = maxs;
+            this.subtreeMax = new int[ids.length];
+            buildSubtreeMax(0, ids.length);
+            this.sortedMaxs = maxs.clone();
+            Arrays.sort(sortedMaxs);
+        }
+
+        /**
+         * @param ranges indexed by their position in the list
+         */
+        static RangeIndex of(List<Range> ranges) {
+            var order = new long[ranges.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = (long) ranges.get(i).min << 32 | i;
+            }
+            Arrays.sort(order);
+
+            var ids = new int[order.length];
+            var mins = new int[order.length];
+            var maxs = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                ids[i] = (int) order[i];
+                mins[i] = ranges.get(ids[i]).min;
+                maxs[i] = ranges.get(ids[i]).max;
+            }
+            return new RangeIndex(ids, mins, maxs);
+        }
+
+        /**
+         * @return number of ranges containing the section
+         */
+        int countContaining(int section) {
+            return countOverlapping(section, section);
+        }
+
+        /**
+         * @return number of ranges sharing at least one section with {@code [min, max]}
+         */
+        int countOverlapping(int min, int max) {
+            // Everything overlaps except ranges ending before min and ranges starting after max
+            var endBefore = lowerBound(sortedMaxs, min);
+            var startAfter = ids.length - lowerBound(mins, max + 1L);
+            return ids.length - endBefore - startAfter;
+        }
+
+        /**
+         * Passes the id of every range sharing at least one section with {@code [min, max]} to the action, in order
+         * of their start.
+         */
+        void forEachOverlapping(int min, int max, IntConsumer action) {
+            forEachOverlapping(0, ids.length, min, max, action);
+        }
+
+        /**
+         * @return the largest number of ranges that share one section
+         */
+        int maxDepth() {
+            var depth = 0;
+            var ended = 0;
+            for (int started = 0; started < mins.length; started++) {
+                while (sortedMaxs[ended] < mins[started]) {
+                    ended++;
+                }
+                depth = Math.max(depth, started + 1 - ended);
+            }
+            return depth;
+        }
+
+        /**
+         * @return number of sections inside at least one range
+         */
+        long coveredSections() {
+            var covered = 0L;
+            for (int i = 0; i < mins.length; ) {
+                var min = mins[i];
+                var max = maxs[i];
+                for (i++; i < mins.length && mins[i] <= max + 1L; i++) {
+                    max = Math.max(max, maxs[i]);
+                }
+                covered += (long) max - min + 1;
+            }
+            return covered;
+        }
+
+        private void forEachOverlapping(int from, int to, int min, int max, IntConsumer action) {
+            while (from < to) {
+                var middle = (from + to) >>> 1;
+                if (subtreeMax[middle] < min) return;
+
+                forEachOverlapping(from, middle, min, max, action);
+                // Everything further right starts after the middle
+                if (mins[middle] > max) return;
+
+                if (maxs[middle] >= min) action.accept(ids[middle]);
+                from = middle + 1;
+            }
+        }
+
+        private int buildSubtreeMax(int from, int to) {
+            if (from >= to) return Integer.MIN_VALUE;
+
+            var middle = (from + to) >>> 1;
+            var max = Math.max(maxs[middle], Math.max(buildSubtreeMax(from, middle), buildSubtreeMax(middle + 1, to)));
+            subtreeMax[middle] = max;
+            return max;
+        }
+
+        /**
+         * @return index of the first value that is not less than the key
+         */
+        private static int lowerBound(int[] sorted, long key) {
+            var low = 0;
+            var high = sorted.length;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (sorted[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
 }
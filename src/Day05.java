@@ -1,98 +1,174 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.List;
 
 public class Day05 {
     public static void main(String[] args) throws IOException {
-        var input = Files.readString(Path.of("input05.txt"));
+        var procedure = parse(Input.map(Path.of("input05.txt")));
 
-        var parts = input.split("\n\n");
-        var stacks = parts[0];
-        var instructions = parseInstructions(parts[1]);
+        System.out.println(part1(procedure));
+        System.out.println(part2(procedure));
+    }
 
-        part1(stacks, instructions);
-        part2(stacks, instructions);
+    static Procedure parse(Input input) {
+        var drawing = new ArrayList<String>();
+        while (!input.isLineEnd()) {
+            drawing.add(input.nextLine());
+        }
+        input.skipLine();
+        return new Procedure(drawing, parseInstructions(input));
     }
 
-    private static void part1(String stacks, List<Instruction> instructions) {
-        var state = State.parse(stacks);
-        for (var instruction : instructions) {
+    static String part1(Procedure procedure) {
+        var state = State.parse(procedure.stacks);
+        for (var instruction : procedure.instructions) {
             instruction.applySingle(state.stacks);
         }
-        System.out.println(state.tops());
+        return state.tops();
     }
 
-    private static void part2(String stacks, List<Instruction> instructions) {
-        var state = State.parse(stacks);
-        for (var instruction : instructions) {
+    static String part2(Procedure procedure) {
+        var state = State.parse(procedure.stacks);
+        for (var instruction : procedure.instructions) {
             instruction.applyStack(state.stacks);
         }
-        System.out.println(state.tops());
+        return state.tops();
     }
 
-    private static List<Instruction> parseInstructions(String part) {
-        return Arrays.stream(part.split("\n"))
-            .map(Instruction::parse)
-            .toList();
+    private static List<Instruction> parseInstructions(Input input) {
+        var instructions = new ArrayList<Instruction>();
+        while (input.hasNext()) {
+            instructions.add(Instruction.parse(input));
+            input.skipLine();
+        }
+        return instructions;
     }
 
-    record State(List<Deque<Character>> stacks) {
-        static State parse(String stacks) {
-            var lines = stacks.split("\n");
-            var count = lines[0].length() / 4 + 1;
+    record Procedure(List<String> stacks, List<Instruction> instructions) {
+    }
 
-            var columns = new ArrayList<Deque<Character>>();
-            for (int i = 0; i < count; i++) {
-                columns.add(new ArrayDeque<>());
-            }
+    record State(Stacks stacks) {
+        static State parse(List<String> lines) {
+            var count = lines.get(0).length() / 4 + 1;
 
-            for (int i = 0; i < lines.length - 1; i++) {
+            // Drawings list the top crate first, so rows are pushed from the bottom up
+            var stacks = new Stacks(count, lines.size());
+            for (int i = lines.size() - 2; i >= 0; i--) {
                 for (int j = 0; j < count; j++) {
-                    var crate = lines[i].charAt(1 + j * 4);
+                    var crate = lines.get(i).charAt(1 + j * 4);
                     if (crate != ' ') {
-                        columns.get(j).addLast(crate);
+                        stacks.push(j, crate);
                     }
                 }
             }
 
-            return new State(columns);
+            return new State(stacks);
         }
 
         public String tops() {
             var builder = new StringBuilder();
-            for (var stack : stacks) {
-                builder.append(stack.peek());
+            for (int i = 0; i < stacks.count(); i++) {
+                if (stacks.size(i) > 0) builder.append(stacks.top(i));
             }
             return builder.toString();
         }
     }
 
     record Instruction(int count, int from, int to) {
-        static Instruction parse(String line) {
-            var parts = line.split("\s");
-            return new Instruction(Integer.parseInt(parts[1]), Integer.parseInt(parts[3]), Integer.parseInt(parts[5]));
+        static Instruction parse(Input input) {
+            return new Instruction(input.nextInt(), input.nextInt(), input.nextInt());
+        }
+
+        public void applySingle(Stacks stacks) {
+            stacks.moveReversed(count, from - 1, to - 1);
         }
 
-        public void applySingle(List<Deque<Character>> stacks) {
+        public void applyStack(Stacks stacks) {
+            stacks.move(count, from - 1, to - 1);
+        }
+    }
+
+    /**
+     * Crate stacks as char arrays with the top crate last, so moving crates between stacks is one bulk copy.
+     */
+    static final class Stacks {
+        private final char[][] crates;
+        private final int[] sizes;
+
+        Stacks(int count, int initialCapacity) {
+            crates = new char[count][Math.max(initialCapacity, 1)];
+            sizes = new int[count];
+        }
+
+        int count() {
+            return crates.length;
+        }
+
+        int size(int stack) {
+            return sizes[stack];
+        }
+
+        char top(int stack) {
+            return crates[stack][sizes[stack] - 1];
+        }
+
+        void push(int stack, char crate) {
+            ensureCapacity(stack, sizes[stack] + 1);
+            crates[stack][sizes[stack]++] = crate;
+        }
+
+        /**
+         * Moves the top {@code count} crates at once, keeping their order.
+         */
+        void move(int count, int from, int to) {
+            var start = take(count, from, to);
+            System.arraycopy(crates[from], start, crates[to], sizes[to], count);
+            sizes[to] += count;
+        }
+
+        /**
+         * Moves the top {@code count} crates one at a time, which reverses their order.
+         */
+        void moveReversed(int count, int from, int to) {
+            if (from == to) {
+                // Every crate lands where it was taken from
+                checkCount(count, from);
+                return;
+            }
+            var start = take(count, from, to);
+            var source = crates[from];
+            var target = crates[to];
+            var end = sizes[to] + count - 1;
             for (int i = 0; i < count; i++) {
-                var item = stacks.get(from - 1).pop();
-                stacks.get(to - 1).push(item);
+                target[end - i] = source[start + i];
             }
+            sizes[to] += count;
         }
 
-        public void applyStack(List<Deque<Character>> stacks) {
-            var stack = new ArrayList<Character>();
-            for (int i = 0; i < count; i++) {
-                stack.add(0, stacks.get(from - 1).pop());
+        /**
+         * Removes the crates from the source stack and makes room for them on the target.
+         *
+         * @return index of the lowest moved crate in the source stack
+         */
+        private int take(int count, int from, int to) {
+            checkCount(count, from);
+            ensureCapacity(to, sizes[to] + count);
+            sizes[from] -= count;
+            return sizes[from];
+        }
+
+        private void checkCount(int count, int from) {
+            if (count > sizes[from]) {
+                throw new IllegalStateException("Cannot move %d crates from stack %d holding %d"
+                    .formatted(count, from + 1, sizes[from]));
             }
+        }
 
-            while (!stack.isEmpty()) {
-                stacks.get(to - 1).push(stack.remove(0));
+        private void ensureCapacity(int stack, int capacity) {
+            if (capacity > crates[stack].length) {
+                crates[stack] = Arrays.copyOf(crates[stack], Math.max(capacity, 2 * crates[stack].length));
             }
         }
     }
@@ -1,50 +1,131 @@
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.LongStream;
 
 public class Day06 {
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Usage: {@code java Day06 [input] [size...]}, prints the marker of every window size, 4 and 14 by default.
+     * The file is searched in chunks in parallel, so it may be larger than memory.
+     */
     public static void main(String[] args) throws IOException {
-        var input = Files.readString(Path.of("input06.txt"));
+        var path = Path.of(args.length > 0 ? args[0] : "input06.txt");
+        var sizes = args.length > 1
+            ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[]{4, 14};
 
-        var characters = input.toCharArray();
-        solveCommon(characters, 4); // Part 1
-        solveCommon(characters, 14); // Part 2
+        for (var marker : findMarkers(path, CHUNK_SIZE, sizes)) {
+            System.out.println(marker);
+        }
     }
 
-    private static void solveCommon(char[] characters, int size) {
-        var buffer = new SizedBuffer(size);
-        int markerIndex;
-        for (markerIndex = 0; markerIndex < characters.length && !buffer.isMarker(); markerIndex++) {
-            buffer.add(characters[markerIndex]);
-        }
-        System.out.println(markerIndex);
+    /**
+     * @return the markers for window sizes 4 and 14, found in a single pass
+     */
+    static int[] parse(Input input) {
+        var markers = new long[2];
+        findMarkers(input, 0, new int[]{4, 14}, markers);
+        return new int[]{(int) markers[0], (int) markers[1]};
     }
 
-    static class SizedBuffer {
-        private final char[] buffer;
-        private final int size;
-        private int index = 0;
+    static int part1(int[] markers) {
+        return markers[0];
+    }
 
-        SizedBuffer(int size) {
-            buffer = new char[size];
-            this.size = size;
+    static int part2(int[] markers) {
+        return markers[1];
+    }
+
+    /**
+     * Searches chunks of about {@code chunkSize} bytes in parallel. Every chunk also reads the last
+     * {@code max(sizes) - 1} bytes before it, so windows that cross a chunk boundary are seen as well.
+     *
+     * @return for every size, the number of bytes up to and including the first window of that many distinct
+     * bytes, or -1 if there is none
+     */
+    static long[] findMarkers(Path path, long chunkSize, int... sizes) throws IOException {
+        var overlap = Arrays.stream(sizes).max().orElse(1) - 1;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var chunks = Math.max(1, (size + chunkSize - 1) / chunkSize);
+            return LongStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    var from = Math.max(0, chunk * chunkSize - overlap);
+                    var to = Math.min(size, (chunk + 1) * chunkSize);
+                    var markers = new long[sizes.length];
+                    findMarkers(map(channel, from, to), from, sizes, markers);
+                    return markers;
+                })
+                .reduce(Day06::earliest)
+                .orElseThrow();
         }
+    }
 
-        public void add(char character) {
-            buffer[index] = character;
-            index++;
-            index %= size;
+    /**
+     * Tracks the start of the longest run of distinct bytes ending at the current one: when a byte was last seen
+     * inside the run, the run restarts just after it. Each byte is looked at once, whatever the window sizes.
+     *
+     * @param offset position of the first input byte in the whole stream
+     * @param markers receives the marker per size as in {@link #findMarkers(Path, long, int...)}
+     */
+    static void findMarkers(Input input, long offset, int[] sizes, long[] markers) {
+        Arrays.fill(markers, -1);
+        var order = ascending(sizes);
+        var next = 0;
+        while (next < order.length && sizes[order[next]] <= 0) {
+            markers[order[next++]] = offset;
         }
 
-        public boolean isMarker() {
-            for (int i = 0; i < buffer.length - 1; i++) {
-                if (buffer[i] == 0) return false;
+        var lastSeen = new int[256];
+        Arrays.fill(lastSeen, -1);
+        var runStart = 0;
+        for (int i = 0; i < input.length() && next < order.length; i++) {
+            var value = input.get(i) & 0xFF;
+            runStart = Math.max(runStart, lastSeen[value] + 1);
+            lastSeen[value] = i;
 
-                for (int j = i + 1; j < buffer.length; j++) {
-                    if (buffer[j] == 0 || buffer[i] == buffer[j]) return false;
-                }
+            var run = i - runStart + 1;
+            while (next < order.length && run >= sizes[order[next]]) {
+                markers[order[next++]] = offset + i + 1;
             }
-            return true;
+        }
+    }
+
+    private static long[] earliest(long[] first, long[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == -1 || second[i] != -1 && second[i] < first[i]) first[i] = second[i];
+        }
+        return first;
+    }
+
+    /**
+     * @return indices of the sizes, smallest size first
+     */
+    private static int[] ascending(int[] sizes) {
+        var order = new long[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            order[i] = (long) sizes[i] << 32 | i;
+        }
+        Arrays.sort(order);
+
+        var indices = new int[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            indices[i] = (int) order[i];
+        }
+        return indices;
+    }
+
+    private static Input map(FileChannel channel, long from, long to) {
+        try {
+            return Input.map(channel, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -1,140 +1,110 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
 
 public class Day07 {
+    private static final long DISK_SIZE = 70_000_000;
+    private static final long REQUIRED_SPACE = 30_000_000;
+
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input07.txt"));
+        var log = parse(Input.map(Path.of("input07.txt")));
 
-        var cli = new Cli();
-        for (var line : input) {
-            cli.handle(line);
-        }
-        part1(cli);
-        part2(cli);
+        System.out.println(part1(log));
+        System.out.println(part2(log));
     }
 
-    private static void part1(Cli cli) {
-        var smallDirectories = cli.directories()
-            .stream()
-            .filter(directory -> directory.size() < 100_000)
-            .mapToInt(Node::size)
-            .sum();
-        System.out.println(smallDirectories);
+    /**
+     * The log is not turned into a tree, both parts stream the directory sizes straight from it.
+     */
+    static Input parse(Input input) {
+        return input;
     }
 
-    private static void part2(Cli cli) {
-        var totalUsed = cli.root.size();
-        var unused = 70_000_000 - totalUsed;
-        var requiredSpace = 30_000_000;
-        var minimalDeletionSize = requiredSpace - unused;
-
-        var smallestValidDirectory = cli.directories()
-            .stream()
-            .filter(directory -> directory.size() > minimalDeletionSize)
-            .min(Comparator.comparing(Directory::size))
-            .orElseThrow();
-        System.out.println(smallestValidDirectory.size());
+    static long part1(Input log) {
+        var sum = new long[1];
+        directorySizes(log.duplicate(), size -> {
+            if (size < 100_000) sum[0] += size;
+        });
+        return sum[0];
     }
 
-    static class Cli {
-        private boolean expectingOutput = false;
-        private Deque<Directory> path = new ArrayDeque<>();
-        private Directory root = new Directory("/");
-        private Directory current = root;
+    static long part2(Input log) {
+        var minimalDeletionSize = REQUIRED_SPACE - (DISK_SIZE - totalSize(log.duplicate()));
 
-        public void handle(String line) {
-            if (line.startsWith("$")) {
-                expectingOutput = false;
-            }
-            if (expectingOutput) {
-                handleOutput(line);
-            } else {
-                handleCommand(line);
-            }
-        }
+        var smallest = new long[]{Long.MAX_VALUE};
+        directorySizes(log.duplicate(), size -> {
+            if (size > minimalDeletionSize) smallest[0] = Math.min(smallest[0], size);
+        });
+        if (smallest[0] == Long.MAX_VALUE) throw new IllegalStateException("No directory frees enough space");
 
-        private void handleOutput(String line) {
-            var fileInfo = line.split(" ");
-            if ("dir".equals(fileInfo[0])) {
-                current.nodes.put(fileInfo[1], new Directory(fileInfo[1]));
-            } else {
-                current.nodes.put(fileInfo[1], new File(fileInfo[1], Integer.parseInt(fileInfo[0])));
-            }
-        }
+        return smallest[0];
+    }
 
-        private void handleCommand(String line) {
-            var command = line.substring(2).split(" "); // Strip "$ "
-            if (command[0].equals("cd")) {
-                if (command[1].equals("..")) {
-                    current = path.pop();
-                } else if (command[1].equals("/")) {
-                    path.clear();
-                    current = root;
+    /**
+     * Replays the terminal log keeping only the running totals of the directories on the current path. A directory
+     * is complete when it is left, its size is then emitted and added to its parent. Every directory is emitted once,
+     * the root last, so memory is proportional to the depth of the tree rather than its size.
+     * <p>
+     * A size is only final when it is left, so this assumes every directory is visited once, as in the puzzle logs.
+     * Only a directory listed twice while it is on the current path is rejected, a directory entered again after it
+     * was left would be emitted again.
+     */
+    static void directorySizes(Input log, LongConsumer sink) {
+        // The root is at depth 0 and never popped before the end
+        var totals = new long[16];
+        var listed = new boolean[16];
+        var depth = 0;
+        while (log.hasNext()) {
+            if (log.startsWith("$ cd ")) {
+                log.skip("$ cd ".length());
+                if (log.startsWith("..")) {
+                    if (depth == 0) throw new IllegalStateException("Cannot leave the root directory");
+                    depth = leave(totals, depth, sink);
+                } else if (log.startsWith("/")) {
+                    while (depth > 0) {
+                        depth = leave(totals, depth, sink);
+                    }
                 } else {
-                    path.push(current);
-                    current = current.getDirectory(command[1]);
+                    if (++depth == totals.length) {
+                        totals = Arrays.copyOf(totals, 2 * depth);
+                        listed = Arrays.copyOf(listed, 2 * depth);
+                    }
+                    totals[depth] = 0;
+                    listed[depth] = false;
                 }
-            } else if (command[0].equals("ls")) {
-                expectingOutput = true;
-            } else {
-                throw new IllegalArgumentException("Unknown command " + line);
+            } else if (log.startsWith("$ ls")) {
+                if (listed[depth]) throw new IllegalArgumentException("Directory listed twice");
+                listed[depth] = true;
+            } else if (log.peek() == '$') {
+                throw new IllegalArgumentException("Unknown command " + log.nextLine());
+            } else if (!log.startsWith("dir ")) {
+                totals[depth] += log.nextLong();
             }
+            log.skipLine();
         }
 
-        public List<Directory> directories() {
-            var directories = new ArrayList<Directory>();
-            var queue = new ArrayDeque<Directory>();
-            queue.push(root);
-            while (!queue.isEmpty()) {
-                var directory = queue.poll();
-                directory.nodes()
-                    .values()
-                    .stream()
-                    .filter(Directory.class::isInstance)
-                    .map(Directory.class::cast)
-                    .forEach(queue::push);
-                directories.add(directory);
-            }
-            return directories;
+        while (depth > 0) {
+            depth = leave(totals, depth, sink);
         }
+        sink.accept(totals[0]);
     }
 
-    sealed interface Node {
-        int size();
-    }
-
-    record Directory(String name, Map<String, Node> nodes, AtomicInteger directorySize) implements Node {
-        Directory(String name) {
-            this(name, new HashMap<>(), new AtomicInteger());
-        }
-
-        public Directory getDirectory(String name) {
-            return (Directory) nodes.get(name);
-        }
-
-        @Override
-        public int size() {
-            if (directorySize.get() == 0) {
-                var size = nodes.values()
-                    .stream()
-                    .mapToInt(Node::size)
-                    .sum();
-                directorySize.set(size);
-            }
-
-            return directorySize.get();
+    /**
+     * @return sum of all file sizes, the size of the root directory
+     */
+    static long totalSize(Input log) {
+        var total = 0L;
+        while (log.hasNext()) {
+            if (log.peek() >= '0' && log.peek() <= '9') total += log.nextLong();
+            log.skipLine();
         }
+        return total;
     }
 
-    record File(String name, int size) implements Node {
+    private static int leave(long[] totals, int depth, LongConsumer sink) {
+        sink.accept(totals[depth]);
+        totals[depth - 1] += totals[depth];
+        return depth - 1;
     }
 }
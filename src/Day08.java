@@ -1,104 +1,197 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 public class Day08 {
-    public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input08.txt"));
+    // Columns swept together by one task, stepping down the rows keeps the grid reads sequential
+    private static final int BAND_WIDTH = 64;
 
-        var grid = input.stream()
-            .map(line -> line.chars().map(i -> i - '0').toArray())
-            .toArray(int[][]::new);
+    public static void main(String[] args) throws IOException {
+        var grid = parse(Input.map(Path.of("input08.txt")));
 
-        part1(grid);
-        part2(grid);
+        System.out.println(part1(grid));
+        System.out.println(part2(grid));
     }
 
-    private static void part1(int[][] grid) {
-        var visible = grid.length * 2; // vertical lines
-        visible += (grid[0].length - 2) * 2; // horizontal lines, ignoring corners (present in previous)
-
-        for (int row = 1; row < grid.length - 1; row++) {
-            for (int column = 1; column < grid[row].length - 1; column++) {
-                if (isVisible(grid, row, column)) {
-                    visible++;
-                }
+    static Grid parse(Input input) {
+        var width = input.lineEnd() - input.position();
+        var heights = new byte[64];
+        var cells = 0;
+        while (input.hasNext()) {
+            var lineEnd = input.lineEnd();
+            if (lineEnd - input.position() != width) {
+                throw new IllegalArgumentException("All rows must be " + width + " trees wide");
+            }
+            if (cells + width > heights.length) {
+                heights = Arrays.copyOf(heights, Math.max(2 * heights.length, cells + width));
+            }
+            while (input.position() < lineEnd) {
+                var height = input.next() - '0';
+                if (height < 0 || height > 9) throw new IllegalArgumentException("Not a tree height: " + height);
+                heights[cells++] = (byte) height;
             }
+            input.skipLine();
         }
-        System.out.println(visible);
+        return new Grid(Arrays.copyOf(heights, cells), width, width == 0 ? 0 : cells / width);
     }
 
-    private static void part2(int[][] grid) {
-        var bestScore = 0;
-        for (int row = 0; row < grid.length; row++) {
-            for (int column = 0; column < grid[row].length; column++) {
-                var scenicScore = scenicScore(grid, row, column);
-                if (scenicScore > bestScore) {
-                    bestScore = scenicScore;
-                }
-            }
+    static int part1(Grid grid) {
+        return survey(grid).visible();
+    }
+
+    static long part2(Grid grid) {
+        return survey(grid).bestScore();
+    }
+
+    /**
+     * Looks along every row and column in both directions once. The trees that can still block the view of a later
+     * tree form a monotonic stack of strictly decreasing height, and with heights being digits it holds at most one
+     * tree per height. It is kept as the nearest position per height, so finding the blocking tree is one lookup.
+     * <p>
+     * Rows are swept in parallel first and leave the horizontal result of every cell behind, then bands of columns
+     * are swept in parallel and combine it with the vertical one.
+     */
+    static Survey survey(Grid grid) {
+        if (grid.height == 0) return new Survey(0, 0);
+
+        // Product of the viewing distances to the left and right, complemented if visible from either side
+        var horizontal = new int[grid.heights.length];
+        IntStream.range(0, grid.height)
+            .parallel()
+            .forEach(row -> sweepRow(grid, row, horizontal));
+
+        return IntStream.range(0, (grid.width + BAND_WIDTH - 1) / BAND_WIDTH)
+            .parallel()
+            .mapToObj(band -> {
+                var from = band * BAND_WIDTH;
+                return sweepColumns(grid, from, Math.min(grid.width, from + BAND_WIDTH), horizontal);
+            })
+            .reduce(Survey::merge)
+            .orElseThrow();
+    }
+
+    private static void sweepRow(Grid grid, int row, int[] horizontal) {
+        var nearest = new int[Horizon.HEIGHTS];
+        var start = row * grid.width;
+        Arrays.fill(nearest, -1);
+        for (int x = 0; x < grid.width; x++) {
+            var blocker = look(nearest, grid.heights[start + x], x);
+            horizontal[start + x] = encode(blocker < 0 ? x : x - blocker, blocker < 0);
+        }
+
+        Arrays.fill(nearest, -1);
+        for (int x = grid.width - 1, position = 0; x >= 0; x--, position++) {
+            var blocker = look(nearest, grid.heights[start + x], position);
+            var left = horizontal[start + x];
+            var right = blocker < 0 ? position : position - blocker;
+            horizontal[start + x] = encode(distance(left) * right, isOpen(left) || blocker < 0);
         }
-        System.out.println(bestScore);
     }
 
-    private static boolean isVisible(int[][] grid, int row, int column) {
-        var visibleSides = 4;
-        for (int y = row - 1; y >= 0; y--) {
-            if (grid[y][column] >= grid[row][column]) {
-                visibleSides--;
-                break;
-            }
+    /**
+     * {@link Horizon#look} for a single line.
+     *
+     * @return nearest position at least as high as the tree, or -1 if there is none
+     */
+    private static int look(int[] nearest, int height, int position) {
+        var blocker = nearest[height];
+        for (int h = 0; h < Horizon.HEIGHTS; h++) {
+            nearest[h] = h <= height ? position : nearest[h];
         }
-        for (int y = row + 1; y < grid.length; y++) {
-            if (grid[y][column] >= grid[row][column]) {
-                visibleSides--;
-                break;
+        return blocker;
+    }
+
+    private static Survey sweepColumns(Grid grid, int from, int to, int[] horizontal) {
+        var lanes = to - from;
+        var horizon = new Horizon(lanes);
+        var up = new int[lanes * grid.height];
+        for (int y = 0; y < grid.height; y++) {
+            horizon.look(grid.heights, y * grid.width + from, y);
+            for (int lane = 0; lane < lanes; lane++) {
+                var blocker = horizon.blockers[lane];
+                up[y * lanes + lane] = encode(blocker < 0 ? y : y - blocker, blocker < 0);
             }
         }
-        for (int x = column - 1; x >= 0; x--) {
-            if (grid[row][x] >= grid[row][column]) {
-                visibleSides--;
-                break;
+
+        horizon.clear();
+        var visible = 0;
+        var bestScore = 0L;
+        for (int y = grid.height - 1, position = 0; y >= 0; y--, position++) {
+            var start = y * grid.width + from;
+            horizon.look(grid.heights, start, position);
+            for (int lane = 0; lane < lanes; lane++) {
+                var blocker = horizon.blockers[lane];
+                var down = blocker < 0 ? position : position - blocker;
+                var vertical = up[y * lanes + lane];
+                var sides = horizontal[start + lane];
+                if (isOpen(sides) || isOpen(vertical) || blocker < 0) visible++;
+                bestScore = Math.max(bestScore, (long) distance(sides) * distance(vertical) * down);
             }
         }
-        for (int x = column + 1; x < grid[0].length; x++) {
-            if (grid[row][x] >= grid[row][column]) {
-                visibleSides--;
-                break;
-            }
+        return new Survey(visible, bestScore);
+    }
+
+    private static int encode(int distance, boolean open) {
+        return open ? ~distance : distance;
+    }
+
+    private static int distance(int encoded) {
+        return encoded < 0 ? ~encoded : encoded;
+    }
+
+    private static boolean isOpen(int encoded) {
+        return encoded < 0;
+    }
+
+    /**
+     * Trees in row-major order, one height per byte.
+     */
+    record Grid(byte[] heights, int width, int height) { // NOSONAR
+    }
+
+    record Survey(int visible, long bestScore) {
+        Survey merge(Survey other) {
+            return new Survey(visible + other.visible, Math.max(bestScore, other.bestScore));
         }
-        return visibleSides > 0;
     }
 
-    private static int scenicScore(int[][] grid, int row, int column) {
-        var up = 0;
-        for (int y = row - 1; y >= 0; y--) {
-            up++;
-            if (grid[y][column] >= grid[row][column]) {
-                break;
-            }
+    /**
+     * The trees seen so far along several parallel lines, the lanes, as the nearest position of a tree at least as
+     * high as each height. Laid out height by height, so updating all lanes is a branch-free loop over the lanes.
+     */
+    static final class Horizon {
+        private static final int HEIGHTS = 10;
+
+        private final int lanes;
+        private final int[] nearest;
+        // Nearest position at least as high as the tree of each lane added last, or -1 if there is none
+        private final int[] blockers;
+
+        Horizon(int lanes) {
+            this.lanes = lanes;
+            nearest = new int[HEIGHTS * lanes];
+            blockers = new int[lanes];
+            clear();
         }
-        var down = 0;
-        for (int y = row + 1; y < grid.length; y++) {
-            down++;
-            if (grid[y][column] >= grid[row][column]) {
-                break;
+
+        /**
+         * Adds the next tree of every lane, read from {@code heights[start + lane]}, and fills {@link #blockers}.
+         */
+        void look(byte[] heights, int start, int position) {
+            for (int lane = 0; lane < lanes; lane++) {
+                blockers[lane] = nearest[heights[start + lane] * lanes + lane];
             }
-        }
-        var left = 0;
-        for (int x = column - 1; x >= 0; x--) {
-            left++;
-            if (grid[row][x] >= grid[row][column]) {
-                break;
+            for (int height = 0; height < HEIGHTS; height++) {
+                var base = height * lanes;
+                for (int lane = 0; lane < lanes; lane++) {
+                    nearest[base + lane] = heights[start + lane] >= height ? position : nearest[base + lane];
+                }
             }
         }
-        var right = 0;
-        for (int x = column + 1; x < grid[0].length; x++) {
-            right++;
-            if (grid[row][x] >= grid[row][column]) {
-                break;
-            }
+
+        void clear() {
+            Arrays.fill(nearest, -1);
         }
-        return up * left * down * right;
     }
 }
@@ -1,129 +1,124 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.function.Consumer;
 
 public class Day09 {
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input09.txt"));
-        var movements = input.stream()
-            .mapMulti(Day09::parseMovement)
-            .toList();
+        var movements = parse(Input.map(Path.of("input09.txt")));
 
-        part1(movements);
-        part2(movements);
+        System.out.println(part1(movements));
+        System.out.println(part2(movements));
     }
 
-    private static void part1(List<Movement> movements) {
-        var rope = Rope.withSize(2);
-        var visited = new HashSet<Position>();
-        for (var movement : movements) {
-            rope.apply(movement);
-            rope.addTail(visited);
+    static List<Move> parse(Input input) {
+        var moves = new ArrayList<Move>();
+        while (input.hasNext()) {
+            moves.add(Move.parse(input));
+            input.skipLine();
         }
-        System.out.println(visited.size());
+        return moves;
     }
 
-    private static void part2(List<Movement> movements) {
-        var rope = Rope.withSize(10);
-        var visited = new HashSet<Position>();
-        for (var movement : movements) {
-            rope.apply(movement);
-            rope.addTail(visited);
-        }
-        System.out.println(visited.size());
+    static int part1(List<Move> moves) {
+        return visitedByTail(moves, 2);
     }
 
-    private static void parseMovement(String line, Consumer<Movement> consumer) {
-        var parts = line.split(" ");
-        var count = Integer.parseInt(parts[1]);
-
-        var movement = switch (parts[0]) {
-            case "U" -> Movement.UP;
-            case "D" -> Movement.DOWN;
-            case "L" -> Movement.LEFT;
-            case "R" -> Movement.RIGHT;
-            default -> throw new IllegalArgumentException("Unknown direction: " + parts[0]);
-        };
-        for (int i = 0; i < count; i++) {
-            consumer.accept(movement);
-        }
+    static int part2(List<Move> moves) {
+        return visitedByTail(moves, 10);
     }
 
-    record Rope(List<Position> positions) {
-        static Rope withSize(int length) {
-            var positions = new ArrayList<Position>();
-            for (int i = 0; i < length; i++) {
-                positions.add(new Position());
+    private static int visitedByTail(List<Move> moves, int knots) {
+        var rope = new Rope(knots);
+        var visited = new LongSet();
+        rope.addTail(visited);
+        for (var move : moves) {
+            for (int i = 0; i < move.count; i++) {
+                // The tail only moves if every knot before it did
+                if (rope.step(move.direction) == knots) rope.addTail(visited);
             }
-            return new Rope(positions);
         }
+        return visited.size();
+    }
 
-        public void apply(Movement movement) {
-            positions.set(0, positions.get(0).add(movement));
+    record Move(Movement direction, int count) {
+        static Move parse(Input line) {
+            var letter = line.next();
+            var direction = switch (letter) {
+                case 'U' -> Movement.UP;
+                case 'D' -> Movement.DOWN;
+                case 'L' -> Movement.LEFT;
+                case 'R' -> Movement.RIGHT;
+                default -> throw new IllegalArgumentException("Unknown direction: " + (char) letter);
+            };
+            return new Move(direction, line.nextInt());
+        }
+    }
 
-            for (int i = 1; i < positions.size(); i++) {
-                var position = positions.get(i);
-                var previous = positions.get(i - 1);
-                if (position.shouldFollow(previous)) {
-                    positions.set(i, position.follow(previous));
-                }
+    /**
+     * Knot positions in two arrays, the head at index 0.
+     */
+    static final class Rope {
+        private final int[] xs;
+        private final int[] ys;
+
+        Rope(int knots) {
+            xs = new int[knots];
+            ys = new int[knots];
+        }
+
+        /**
+         * Moves the head one step and lets the other knots follow.
+         *
+         * @return number of knots that moved, as a knot that stays put keeps all knots after it in place too
+         */
+        int step(Movement movement) {
+            xs[0] += movement.x;
+            ys[0] += movement.y;
+
+            for (int i = 1; i < xs.length; i++) {
+                var dx = xs[i - 1] - xs[i];
+                var dy = ys[i - 1] - ys[i];
+                if (Math.abs(dx) <= 1 && Math.abs(dy) <= 1) return i;
+
+                xs[i] += Integer.signum(dx);
+                ys[i] += Integer.signum(dy);
             }
+            return xs.length;
         }
 
-        public void addTail(Set<Position> visited) {
-            visited.add(positions.get(positions.size() - 1));
+        void addTail(LongSet visited) {
+            visited.add(Points.pack(xs[xs.length - 1], ys[ys.length - 1]));
         }
 
         @Override
         public String toString() {
-            var minX = positions.stream()
-                .mapToInt(Position::x)
-                .min()
-                .orElse(0);
-            var maxX = positions.stream()
-                .mapToInt(Position::x)
-                .max()
-                .orElse(0);
-            var minY = positions.stream()
-                .mapToInt(Position::y)
-                .min()
-                .orElse(0);
-            var maxY = positions.stream()
-                .mapToInt(Position::y)
-                .max()
-                .orElse(0);
+            var minX = Math.min(Arrays.stream(xs).min().orElse(0), 0);
+            var maxX = Arrays.stream(xs).max().orElse(0);
+            var minY = Math.min(Arrays.stream(ys).min().orElse(0), 0);
+            var maxY = Arrays.stream(ys).max().orElse(0);
 
             var builder = new StringBuilder();
-            for (int y = Math.min(minY, 0); y <= maxY; y++) {
-                for (int x = Math.min(minX, 0); x <= maxX; x++) {
-                    var didPrint = false;
-                    for (int i = 0; i < positions.size(); i++) {
-                        var item = positions.get(i);
-                        if (item.x == x && item.y == y) {
-                            if (i == 0) {
-                                builder.append('H');
-                            } else if (i == positions.size() - 1) {
-                                builder.append('T');
-                            } else {
-                                builder.append(i);
-                            }
-                            didPrint = true;
-                            break;
-                        }
-                    }
-                    if (!didPrint) {
-                        builder.append('.');
-                    }
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    builder.append(symbol(x, y));
                 }
                 builder.append('\n');
             }
             return builder.toString();
         }
+
+        private char symbol(int x, int y) {
+            for (int i = 0; i < xs.length; i++) {
+                if (xs[i] == x && ys[i] == y) {
+                    if (i == 0) return 'H';
+                    if (i == xs.length - 1) return 'T';
+                    return (char) ('0' + i);
+                }
+            }
+            return '.';
+        }
     }
 
     enum Movement {
@@ -137,25 +132,4 @@ public class Day09 {
             this.y = y;
         }
     }
-
-    record Position(int x, int y) {
-        Position() {
-            this(0, 0);
-        }
-
-        public Position add(Movement movement) {
-            return new Position(x + movement.x, y + movement.y);
-        }
-
-        public boolean shouldFollow(Position previous) {
-            return Math.max(Math.abs(x - previous.x), Math.abs(y - previous.y)) > 1;
-        }
-
-        public Position follow(Position previous) {
-            int dx = (int) Math.signum(previous.x - x);
-            int dy = (int) Math.signum(previous.y - y);
-
-            return new Position(x + dx, y + dy);
-        }
-    }
 }
@@ -1,198 +1,162 @@
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Arrays;
 
 public class Day10 {
+    private static final byte NOOP = 0;
+    private static final byte ADDX = 1;
+    private static final int[] CYCLES = {1, 2};
+
+    private static final int SCREEN_WIDTH = 40;
+    private static final int SCREEN_HEIGHT = 6;
+
     public static void main(String[] args) throws IOException {
-        var input = Arrays.asList("""
-            addx 15
-            addx -11
-            addx 6
-            addx -3
-            addx 5
-            addx -1
-            addx -8
-            addx 13
-            addx 4
-            noop
-            addx -1
-            addx 5
-            addx -1
-            addx 5
-            addx -1
-            addx 5
-            addx -1
-            addx 5
-            addx -1
-            addx -35
-            addx 1
-            addx 24
-            addx -19
-            addx 1
-            addx 16
-            addx -11
-            noop
-            noop
-            addx 21
-            addx -15
-            noop
-            noop
-            addx -3
-            addx 9
-            addx 1
-            addx -3
-            addx 8
-            addx 1
-            addx 5
-            noop
-            noop
-            noop
-            noop
-            noop
-            addx -36
-            noop
-            addx 1
-            addx 7
-            noop
-            noop
-            noop
-            addx 2
-            addx 6
-            noop
-            noop
-            noop
-            noop
-            noop
-            addx 1
-            noop
-            noop
-            addx 7
-            addx 1
-            noop
-            addx -13
-            addx 13
-            addx 7
-            noop
-            addx 1
-            addx -33
-            noop
-            noop
-            noop
-            addx 2
-            noop
-            noop
-            noop
-            addx 8
-            noop
-            addx -1
-            addx 2
-            addx 1
-            noop
-            addx 17
-            addx -9
-            addx 1
-            addx 1
-            addx -3
-            addx 11
-            noop
-            noop
-            addx 1
-            noop
-            addx 1
-            noop
-            noop
-            addx -13
-            addx -19
-            addx 1
-            addx 3
-            addx 26
-            addx -30
-            addx 12
-            addx -1
-            addx 3
-            addx 1
-            noop
-            noop
-            noop
-            addx -9
-            addx 18
-            addx 1
-            addx 2
-            noop
-            noop
-            addx 9
-            noop
-            noop
-            noop
-            addx -1
-            addx 2
-            addx -37
-            addx 1
-            addx 3
-            noop
-            addx 15
-            addx -21
-            addx 22
-            addx -6
-            addx 1
-            noop
-            addx 2
-            addx 1
-            noop
-            addx -10
-            noop
-            noop
-            addx 20
-            addx 1
-            addx 2
-            addx 2
-            addx -6
-            addx -11
-            noop
-            noop
-            noop""".split("\n"));
-        var input2 = Files.readAllLines(Path.of("input10.txt"));
-        input = input2;
-
-        var x = 1;
-        var cycle = 0;
-        var executingCycles = 0;
-        var adding = 0;
-        var signalSum = 0;
-        var screen = new boolean[240];
-        for (var currentInstruction = 0; currentInstruction < input.size(); cycle++) {
-            if (executingCycles == 0) {
-                var instruction = input.get(currentInstruction);
-                if (instruction.startsWith("addx")) {
-                    var parts = instruction.split(" ");
-                    adding = Integer.parseInt(parts[1]);
-                    executingCycles = 1;
+        var trace = parse(Input.map(Path.of("input10.txt")));
+
+        System.out.println(part1(trace));
+        System.out.println();
+        trace.render(SCREEN_WIDTH, SCREEN_HEIGHT, System.out);
+        System.out.flush();
+    }
+
+    static Trace parse(Input input) {
+        return Program.parse(input).trace();
+    }
+
+    static long part1(Trace trace) {
+        return trace.periodicSignalStrength(20, SCREEN_WIDTH);
+    }
+
+    static String part2(Trace trace) {
+        var screen = new ByteArrayOutputStream();
+        trace.render(SCREEN_WIDTH, SCREEN_HEIGHT, screen);
+        // Every row preceded by a line feed instead of followed by one
+        var rows = screen.toString(StandardCharsets.US_ASCII);
+        return "\n" + rows.substring(0, Math.max(0, rows.length() - 1));
+    }
+
+    /**
+     * Instructions compiled to an opcode and an operand each.
+     */
+    record Program(byte[] opcodes, int[] operands, int length) { // NOSONAR
+        static Program parse(Input input) {
+            var opcodes = new byte[64];
+            var operands = new int[64];
+            var length = 0;
+            while (input.hasNext()) {
+                if (length == opcodes.length) {
+                    opcodes = Arrays.copyOf(opcodes, 2 * length);
+                    operands = Arrays.copyOf(operands, 2 * length);
                 }
-                currentInstruction++;
-            } else {
-                executingCycles--;
+                if (input.startsWith("noop")) {
+                    opcodes[length] = NOOP;
+                } else if (input.startsWith("addx ")) {
+                    opcodes[length] = ADDX;
+                    operands[length] = input.nextInt();
+                } else {
+                    throw new IllegalArgumentException("Unknown instruction " + input.nextLine());
+                }
+                length++;
+                input.skipLine();
             }
-            if ((cycle + 1 - 20) % 40 == 0) {
-                signalSum += (cycle + 1) * x;
+            return new Program(opcodes, operands, length);
+        }
+
+        /**
+         * Runs the program once. The value of x during a cycle is the prefix sum of the additions that completed
+         * before it, so the deltas are placed at the cycle they take effect and summed up.
+         */
+        Trace trace() {
+            var cycles = 0;
+            for (int i = 0; i < length; i++) {
+                cycles += CYCLES[opcodes[i]];
             }
-            var pixel = cycle%40;
-            if (pixel >= x - 1 && pixel <= x + 1) {
-                screen[cycle] = true;
+
+            // Index 0 holds the value before the first cycle, so x[cycle] is the value during that 1-based cycle
+            var x = new int[cycles + 1];
+            x[0] = 1;
+            var cycle = 1;
+            for (int i = 0; i < length; i++) {
+                cycle += CYCLES[opcodes[i]];
+                if (opcodes[i] == ADDX && cycle <= cycles) x[cycle] += operands[i];
             }
-            if (executingCycles == 0) {
-                x += adding;
-                adding = 0;
+            for (int i = 1; i <= cycles; i++) {
+                x[i] += x[i - 1];
             }
+            return new Trace(x);
         }
-        // Part 1
-        System.out.println(signalSum);
-        // Part 2
-        for (int i = 0; i < screen.length; i++) {
-            if (i % 40 == 0) {
-                System.out.println();
+    }
+
+    /**
+     * Value of the x register during every cycle of a run.
+     */
+    record Trace(int[] x) { // NOSONAR
+        int cycles() {
+            return x.length - 1;
+        }
+
+        /**
+         * @param cycle 1-based, at most {@link #cycles()}
+         */
+        int x(int cycle) {
+            return x[cycle];
+        }
+
+        long signalStrength(int cycle) {
+            return (long) cycle * x[cycle];
+        }
+
+        /**
+         * @return sum of the signal strengths at the given cycles
+         */
+        long signalStrength(int... cycles) {
+            var sum = 0L;
+            for (var cycle : cycles) {
+                sum += signalStrength(cycle);
+            }
+            return sum;
+        }
+
+        /**
+         * @return sum of the signal strengths at {@code first}, {@code first + period} and so on until the last cycle
+         */
+        long periodicSignalStrength(int first, int period) {
+            var sum = 0L;
+            for (int cycle = first; cycle <= cycles(); cycle += period) {
+                sum += signalStrength(cycle);
+            }
+            return sum;
+        }
+
+        /**
+         * Draws one pixel per cycle, lit when the three pixel wide sprite centered on x covers it. Rows are ended with
+         * a line feed and each frame of {@code width * height} cycles is written to the sink in one call, the last
+         * frame may be shorter.
+         */
+        void render(int width, int height, OutputStream sink) {
+            var frame = new byte[(width + 1) * height];
+            var length = 0;
+            for (int cycle = 1; cycle <= cycles(); cycle++) {
+                var pixel = (cycle - 1) % width;
+                frame[length++] = (byte) (Math.abs(pixel - x[cycle]) <= 1 ? '#' : ' ');
+                if (pixel == width - 1 || cycle == cycles()) frame[length++] = '\n';
+                if (length == frame.length || cycle == cycles()) {
+                    write(sink, frame, length);
+                    length = 0;
+                }
+            }
+        }
+
+        private static void write(OutputStream sink, byte[] frame, int length) {
+            try {
+                sink.write(frame, 0, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            System.out.print(screen[i] ? "#" : ' ');
         }
     }
 }
@@ -1,37 +1,38 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.LongUnaryOperator;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class Day11 {
+    // Operations compiled to an opcode and a constant: old + c, old * c, old * old and c
+    private static final byte ADD = 0;
+    private static final byte MULTIPLY = 1;
+    private static final byte SQUARE = 2;
+    private static final byte SET = 3;
+
+    /**
+     * Usage: {@code java Day11 [input] [rounds]}, with rounds also prints the inspections per monkey after that many
+     * rounds without relief.
+     */
     public static void main(String[] args) throws IOException {
-        var input = Files.readString(Path.of("input11.txt"));
-        var monkeys = Arrays.stream(input.split("\n\n"))
-            .map(Monkey::parse)
-            .toList();
-        var lcm = monkeys.stream()
-            .mapToLong(Monkey::modulo)
-            .reduce((a, b) -> a * b)
-            .orElseThrow() / gcd(monkeys);
-
-        part1(monkeys, lcm);
-        part2(monkeys, lcm);
+        var troop = parse(Input.map(Path.of(args.length > 0 ? args[0] : "input11.txt")));
+
+        System.out.println(part1(troop));
+        System.out.println(part2(troop));
+        if (args.length > 1) {
+            System.out.println(Arrays.toString(inspections(troop, false, Long.parseLong(args[1]))));
+        }
     }
 
-    private static long gcd(List<Monkey> monkeys) {
-        var numbers = monkeys.stream()
-            .mapToLong(Monkey::modulo)
-            .toArray();
-        var result = numbers[0];
-        for (int i = 1; i < numbers.length; i++) {
-            result = gcd(result, numbers[i]);
+    static Troop parse(Input input) {
+        var monkeys = new ArrayList<Monkey>();
+        while (input.hasNext()) {
+            monkeys.add(Monkey.parse(input));
+            input.skipWhitespace();
         }
-        return result;
+        return Troop.of(monkeys);
     }
 
     private static long gcd(long a, long b) {
@@ -43,118 +44,337 @@ public class Day11 {
         return a;
     }
 
-    private static void part1(List<Monkey> monkeys, long lcm) {
-        monkeys = monkeys.stream()
-            .map(Monkey::copy)
-            .toList();
+    static long part1(Troop troop) {
+        return monkeyBusiness(new RoundSimulator(troop, true).play(20));
+    }
+
+    static long part2(Troop troop) {
+        return monkeyBusiness(inspections(troop, false, 10_000));
+    }
+
+    /**
+     * @return product of the two highest inspection counts
+     * @throws ArithmeticException if it does not fit in a long
+     */
+    static long monkeyBusiness(long[] inspections) {
+        var sorted = inspections.clone();
+        Arrays.sort(sorted);
+        return Math.multiplyExact(sorted[sorted.length - 1], sorted[sorted.length - 2]);
+    }
 
-        var inspections = new int[monkeys.size()];
-        for (int round = 0; round < 20; round++) {
-            for (int monkey = 0; monkey < monkeys.size(); monkey++) {
-                inspections[monkey] += monkeys.get(monkey).inspectItems(monkeys, true, lcm);
+    /**
+     * Counts the inspections per monkey over the given number of rounds without moving items between monkeys. The
+     * path of an item depends only on its own worry level and the monkey holding it, so every item is followed on its
+     * own and the items are spread over all cores.
+     */
+    static long[] inspections(Troop troop, boolean relief, long rounds) {
+        var walker = new ItemWalker(troop, relief);
+        var holders = new int[Arrays.stream(troop.items).mapToInt(items -> items.length).sum()];
+        var worries = new long[holders.length];
+        for (int monkey = 0, item = 0; monkey < troop.size(); monkey++) {
+            for (var worry : troop.items[monkey]) {
+                holders[item] = monkey;
+                worries[item++] = worry;
             }
         }
-        var monkeyBusiness = IntStream.of(inspections)
-            .sorted()
-            .skip(monkeys.size() - 2L)
-            .reduce((a, b) -> a * b)
-            .orElseThrow();
-        System.out.println(monkeyBusiness);
+        return IntStream.range(0, holders.length)
+            .parallel()
+            .collect(
+                () -> new long[troop.size()],
+                (inspections, item) -> walker.walk(holders[item], worries[item], rounds, inspections),
+                Day11::add);
+    }
+
+    private static void add(long[] sum, long[] other) {
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += other[i];
+        }
     }
 
-    private static void part2(List<Monkey> monkeys, long lcm) {
-        var inspections = new int[monkeys.size()];
-        for (int round = 0; round < 10_000; round++) {
-            for (int monkey = 0; monkey < monkeys.size(); monkey++) {
-                inspections[monkey] += monkeys.get(monkey).inspectItems(monkeys, false, lcm);
+    /**
+     * @throws ArithmeticException if the new worry level does not fit in a long
+     */
+    private static long operate(byte opcode, long constant, long old) {
+        return switch (opcode) {
+            case ADD -> Math.addExact(old, constant);
+            case MULTIPLY -> Math.multiplyExact(old, constant);
+            case SQUARE -> Math.multiplyExact(old, old);
+            default -> constant;
+        };
+    }
+
+    /**
+     * The monkeys with one array per attribute, indexed by monkey, and the least common multiple of their moduli.
+     */
+    record Troop(long[][] items, byte[] opcodes, long[] constants, long[] modulos, int[] trueTargets,
+                 int[] falseTargets, long lcm) { // NOSONAR
+        static Troop of(List<Monkey> monkeys) {
+            var count = monkeys.size();
+            var items = new long[count][];
+            var opcodes = new byte[count];
+            var constants = new long[count];
+            var modulos = new long[count];
+            var trueTargets = new int[count];
+            var falseTargets = new int[count];
+            var lcm = 1L;
+            for (int i = 0; i < count; i++) {
+                var monkey = monkeys.get(i);
+                checkTarget(i, monkey.trueTarget, count);
+                checkTarget(i, monkey.falseTarget, count);
+                items[i] = monkey.items;
+                opcodes[i] = monkey.operation.opcode;
+                constants[i] = monkey.operation.constant;
+                modulos[i] = monkey.modulo;
+                trueTargets[i] = monkey.trueTarget;
+                falseTargets[i] = monkey.falseTarget;
+                lcm = Math.multiplyExact(lcm / gcd(lcm, monkey.modulo), monkey.modulo);
+            }
+            return new Troop(items, opcodes, constants, modulos, trueTargets, falseTargets, lcm);
+        }
+
+        private static void checkTarget(int monkey, int target, int count) {
+            if (target == monkey || target < 0 || target >= count) {
+                throw new IllegalArgumentException("Monkey " + monkey + " cannot throw to monkey " + target);
             }
         }
-        var monkeyBusiness = IntStream.of(inspections)
-            .mapToLong(i -> i)
-            .sorted()
-            .skip(monkeys.size() - 2L)
-            .reduce((a, b) -> a * b)
-            .orElseThrow();
-        System.out.println(monkeyBusiness);
+
+        int size() {
+            return modulos.length;
+        }
     }
 
-    record Monkey(List<Long> items, LongUnaryOperator operation, long modulo, int trueTarget,
-                  int falseTarget) {
+    record Operation(byte opcode, long constant) {
+    }
+
+    record Monkey(long[] items, Operation operation, long modulo, int trueTarget, int falseTarget) { // NOSONAR
 
         public static final String UNKNOWN_OPERATOR = "Unknown operator ";
 
-        public static Monkey parse(String input) {
-            var lines = input.split("\n");
-            var startingItems = Arrays.stream(lines[1].substring("  Starting items: ".length()).split(", "))
-                .map(Long::parseLong)
-                .collect(Collectors.toCollection(ArrayList::new));
-            var operation = parseOperation(lines[2]);
-            var modulo = parseModulo(lines[3]);
-            var trueTarget = parseTarget(lines[4]);
-            var falseTarget = parseTarget(lines[5]);
-            return new Monkey(startingItems, operation, modulo, trueTarget, falseTarget);
-        }
-
-        private static LongUnaryOperator parseOperation(String line) {
-            var operation = line.substring("  Operation: new = ".length());
-            var operands = operation.split(" ");
-            if ("old".equals(operands[0]) && !"old".equals(operands[2])) {
-                var constant = Integer.parseInt(operands[2]);
-                return switch (operands[1]) {
-                    case "+" -> i -> i + constant;
-                    case "*" -> i -> i * constant;
-                    default -> throw new IllegalArgumentException(UNKNOWN_OPERATOR + operands[1]);
-                };
-            } else if ("old".equals(operands[0])) {
-                return switch (operands[1]) {
-                    case "+" -> i -> i + i;
-                    case "*" -> i -> i * i;
-                    default -> throw new IllegalArgumentException(UNKNOWN_OPERATOR + operands[1]);
-                };
-            } else if ("old".equals(operands[2])) {
-                var constant = Integer.parseInt(operands[0]);
-                return switch (operands[1]) {
-                    case "+" -> i -> i + constant;
-                    case "*" -> i -> i * constant;
-                    default -> throw new IllegalArgumentException(UNKNOWN_OPERATOR + operands[1]);
-                };
+        public static Monkey parse(Input input) {
+            input.skipLine(); // Skip "Monkey n:"
+            input.skipUntil((byte) ':');
+            var startingItems = new long[8];
+            var count = 0;
+            while (!input.isLineEnd()) {
+                if (count == startingItems.length) startingItems = Arrays.copyOf(startingItems, 2 * count);
+                startingItems[count++] = input.nextLong();
+            }
+            input.skipLine();
+            var operation = parseOperation(input);
+            var modulo = parseModulo(input);
+            var trueTarget = parseTarget(input);
+            var falseTarget = parseTarget(input);
+            return new Monkey(Arrays.copyOf(startingItems, count), operation, modulo, trueTarget, falseTarget);
+        }
+
+        private static Operation parseOperation(Input line) {
+            line.skipUntil((byte) '=');
+            var operands = new String[3];
+            for (int i = 0; i < operands.length; i++) {
+                line.skip(1);
+                operands[i] = line.nextWord();
+            }
+            line.skipLine();
+            var multiply = switch (operands[1]) {
+                case "+" -> false;
+                case "*" -> true;
+                default -> throw new IllegalArgumentException(UNKNOWN_OPERATOR + operands[1]);
+            };
+            var left = "old".equals(operands[0]);
+            var right = "old".equals(operands[2]);
+            if (left && right) {
+                return multiply ? new Operation(SQUARE, 0) : new Operation(MULTIPLY, 2);
+            } else if (left || right) {
+                var constant = Long.parseLong(operands[left ? 2 : 0]);
+                return new Operation(multiply ? MULTIPLY : ADD, constant);
             } else {
-                var constant1 = Integer.parseInt(operands[0]);
-                var constant2 = Integer.parseInt(operands[2]);
-                return switch (operands[1]) {
-                    case "+" -> i -> constant1 + constant2;
-                    case "*" -> i -> constant1 * constant2;
-                    default -> throw new IllegalArgumentException(UNKNOWN_OPERATOR + operands[1]);
-                };
+                var constant1 = Long.parseLong(operands[0]);
+                var constant2 = Long.parseLong(operands[2]);
+                return new Operation(SET, multiply ? constant1 * constant2 : constant1 + constant2);
             }
         }
 
-        private static long parseModulo(String line) {
-            return Long.parseLong(line.substring("  Test: divisible by ".length()));
+        private static long parseModulo(Input line) {
+            var modulo = line.nextLong();
+            line.skipLine();
+            return modulo;
         }
 
-        private static int parseTarget(String line) {
-            return Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+        private static int parseTarget(Input line) {
+            var target = line.nextInt();
+            line.skipLine();
+            return target;
         }
+    }
+
+    /**
+     * Plays whole rounds with every monkey holding its items in a ring buffer of primitive worry levels. A monkey
+     * empties its buffer on its turn and never throws to itself, so thrown items are only ever appended to the
+     * buffers of other monkeys. The buffers grow by doubling when full and are reused from then on, so rounds do not
+     * allocate once they are large enough.
+     * <p>
+     * Without relief worry levels are reduced modulo the lcm, which keeps every divisibility test. With relief they
+     * are divided by three, which does not commute with the modulus, so they are kept whole instead.
+     */
+    static final class RoundSimulator {
+        private final Troop troop;
+        private final boolean relief;
+        private final long[][] queues;
+        private final int[] heads;
+        private final int[] sizes;
+        private final long[] inspections;
 
-        public int inspectItems(List<Monkey> monkeys, boolean relief, long lcm) {
-            var inspections = items.size();
-            for (var iterator = items.iterator(); iterator.hasNext(); iterator.remove()) {
-                var item = operation.applyAsLong(iterator.next());
-                if (relief) {
-                    item /= 3;
+        RoundSimulator(Troop troop, boolean relief) {
+            this.troop = troop;
+            this.relief = relief;
+            var count = troop.size();
+            queues = new long[count][];
+            heads = new int[count];
+            sizes = new int[count];
+            inspections = new long[count];
+            for (int monkey = 0; monkey < count; monkey++) {
+                var items = troop.items[monkey];
+                // Capacities are powers of two so positions wrap with a mask
+                queues[monkey] = new long[Integer.highestOneBit(Math.max(1, 2 * items.length - 1))];
+                for (int i = 0; i < items.length; i++) {
+                    queues[monkey][i] = relief ? items[i] : items[i] % troop.lcm;
                 }
-                if (item % modulo == 0) {
-                    monkeys.get(trueTarget).items.add(item % lcm);
-                } else {
-                    monkeys.get(falseTarget).items.add(item % lcm);
+                sizes[monkey] = items.length;
+            }
+        }
+
+        /**
+         * Plays more rounds, continuing where the previous call stopped.
+         *
+         * @return inspections per monkey over all rounds played so far
+         */
+        long[] play(long rounds) {
+            var lcm = troop.lcm;
+            for (long round = 0; round < rounds; round++) {
+                for (int monkey = 0; monkey < queues.length; monkey++) {
+                    var size = sizes[monkey];
+                    if (size == 0) continue;
+                    var queue = queues[monkey];
+                    var mask = queue.length - 1;
+                    var head = heads[monkey];
+                    var opcode = troop.opcodes[monkey];
+                    var constant = troop.constants[monkey];
+                    var modulo = troop.modulos[monkey];
+                    var trueTarget = troop.trueTargets[monkey];
+                    var falseTarget = troop.falseTargets[monkey];
+                    for (int i = 0; i < size; i++) {
+                        var worry = operate(opcode, constant, queue[(head + i) & mask]);
+                        worry = relief ? worry / 3 : worry % lcm;
+                        push(worry % modulo == 0 ? trueTarget : falseTarget, worry);
+                    }
+                    heads[monkey] = (head + size) & mask;
+                    sizes[monkey] = 0;
+                    inspections[monkey] += size;
                 }
             }
-            return inspections;
+            return inspections.clone();
+        }
+
+        private void push(int monkey, long worry) {
+            var queue = queues[monkey];
+            var size = sizes[monkey];
+            if (size == queue.length) {
+                var grown = new long[2 * size];
+                var head = heads[monkey];
+                System.arraycopy(queue, head, grown, 0, size - head);
+                System.arraycopy(queue, 0, grown, size - head, head);
+                queues[monkey] = queue = grown;
+                heads[monkey] = 0;
+            }
+            queue[(heads[monkey] + size) & (queue.length - 1)] = worry;
+            sizes[monkey] = size + 1;
+        }
+    }
+
+    /**
+     * Follows a single item from round to round. Its state at the start of a round is the monkey holding it and its
+     * worry level. Without relief the worry level is kept below the lcm, there are only finitely many states, so the
+     * path eventually repeats and the inspections of all later rounds follow from one period. With relief it is
+     * divided by three and kept whole like in {@link RoundSimulator}, a repeat is then only found if it happens.
+     */
+    static final class ItemWalker {
+        private final byte[] opcodes;
+        private final long[] constants;
+        private final long[] modulos;
+        private final int[] trueTargets;
+        private final int[] falseTargets;
+        private final long lcm;
+        private final boolean relief;
+
+        ItemWalker(Troop troop, boolean relief) {
+            if (troop.lcm > Long.MAX_VALUE / troop.size()) throw new IllegalArgumentException("Worry levels too large");
+            opcodes = troop.opcodes;
+            constants = troop.constants;
+            modulos = troop.modulos;
+            trueTargets = troop.trueTargets;
+            falseTargets = troop.falseTargets;
+            lcm = troop.lcm;
+            this.relief = relief;
+        }
+
+        /**
+         * Adds the inspections of one item to {@code inspections}. The rounds are simulated one by one while Brent's
+         * algorithm looks for a repeated state along the way. Once the period is known, a single pass over it adds
+         * every remaining round, weighted by how often it recurs, so the cost does not depend on {@code rounds}.
+         */
+        void walk(int monkey, long worry, long rounds, long[] inspections) {
+            var state = state(monkey, relief ? worry : worry % lcm);
+
+            // The tortoise waits at the last power of two, the period is found when the hare meets it
+            var tortoise = state;
+            var power = 1L;
+            var period = 0L;
+            var round = 0L;
+            while (round < rounds) {
+                state = round(state, inspections, 1);
+                round++;
+                period++;
+                if (state == tortoise) break;
+                if (period == power) {
+                    tortoise = state;
+                    power *= 2;
+                    period = 0;
+                }
+            }
+            if (round == rounds) return;
+
+            // The state is on the cycle now, every round of the period recurs this often
+            var remaining = rounds - round;
+            var cycles = remaining / period;
+            var rest = remaining % period;
+            for (long i = 0; i < period; i++) {
+                state = round(state, inspections, i < rest ? cycles + 1 : cycles);
+            }
+        }
+
+        /**
+         * Plays one round for the item. Monkeys take their turns in order, so an item thrown to a later monkey is
+         * inspected again in the same round.
+         *
+         * @param state monkey holding the item plus its worry level times the number of monkeys
+         * @param weight how often the round is played
+         * @return state at the start of the next round
+         */
+        private long round(long state, long[] inspections, long weight) {
+            var monkey = (int) (state % opcodes.length);
+            var worry = state / opcodes.length;
+            while (true) {
+                inspections[monkey] += weight;
+                worry = operate(opcodes[monkey], constants[monkey], worry);
+                worry = relief ? worry / 3 : worry % lcm;
+                var target = worry % modulos[monkey] == 0 ? trueTargets[monkey] : falseTargets[monkey];
+                if (target <= monkey) return state(target, worry);
+                monkey = target;
+            }
         }
 
-        public Monkey copy() {
-            return new Monkey(new ArrayList<>(items), operation, modulo, trueTarget, falseTarget);
+        private long state(int monkey, long worry) {
+            return Math.addExact(Math.multiplyExact(worry, opcodes.length), monkey);
         }
     }
 }
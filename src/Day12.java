@@ -1,106 +1,152 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
 
 public class Day12 {
-    public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input12.txt"));
-        var elevations = input.stream()
-            .map(line -> line.chars().toArray())
-            .toArray(int[][]::new);
+    private static final int ELEVATIONS = 26;
 
-        var locations = findStartAndEnd(elevations);
-        var start = locations.getKey();
-        var end = locations.getValue();
+    public static void main(String[] args) throws IOException {
+        var field = parse(Input.map(Path.of("input12.txt")));
 
-        part1(elevations, start, end);
-        part2(elevations, end);
+        System.out.println(part1(field));
+        System.out.println(part2(field));
     }
 
-    private static void part1(int[][] elevations, Point start, Point end) {
-        var distance = dijkstra(elevations, start, end);
-        System.out.println(distance);
+    /**
+     * Both parts ask for shortest hikes to the same end, so a single search from the end answers them.
+     */
+    static DistanceField parse(Input input) {
+        return HeightMap.parse(input).distancesToEnd();
     }
 
-    private static void part2(int[][] elevations, Point end) {
-        var starts = new ArrayList<Point>();
+    static int part1(DistanceField field) {
+        var distance = field.distance(field.map.start);
+        if (distance < 0) throw new IllegalStateException("The end cannot be reached from the start");
+        return distance;
+    }
 
-        for (int i = 0; i < elevations.length; i++) {
-            for (int j = 0; j < elevations[i].length; j++) {
-                if (elevations[i][j] == 'a') starts.add(new Point(j, i));
-            }
-        }
-        var bestDistance = starts.parallelStream()
-            .mapToInt(start -> dijkstra(elevations, start, end))
-            .min()
-            .orElseThrow();
-        System.out.println(bestDistance);
+    static int part2(DistanceField field) {
+        var distance = field.nearest(0);
+        if (distance < 0) throw new IllegalStateException("The end cannot be reached from elevation a");
+        return distance;
     }
 
-    private static int dijkstra(int[][] elevations, Point start, Point end) {
-        var distances = new int[elevations.length][elevations[0].length];
-        for (int[] distance : distances) {
-            Arrays.fill(distance, Integer.MAX_VALUE);
-        }
-        distances[start.y()][start.x()] = 0;
-
-        var queue = new PriorityQueue<Point>(Comparator.comparingInt(point -> distances[point.y()][point.x()]));
-        queue.add(start);
-        while (!queue.isEmpty()) {
-            var point = queue.poll();
-            var neighbours = point.neighbours(elevations);
-            for (var neighbour : neighbours) {
-                var distance = 1 + distances[point.y()][point.x()];
-                if (distance >= distances[neighbour.y()][neighbour.x()]) continue;
-
-                distances[neighbour.y()][neighbour.x()] = distance;
-                queue.add(neighbour);
+    /**
+     * Elevations from 0 for 'a' to 25 for 'z' in row-major order, with the start and end as cell indices.
+     */
+    record HeightMap(byte[] elevations, int width, int height, int start,
+                     int end) implements ShortestPaths.Graph { // NOSONAR
+        static HeightMap parse(Input input) {
+            var width = input.lineEnd() - input.position();
+            var elevations = new byte[64];
+            var cells = 0;
+            var start = -1;
+            var end = -1;
+            while (input.hasNext()) {
+                var lineEnd = input.lineEnd();
+                if (lineEnd - input.position() != width) {
+                    throw new IllegalArgumentException("All rows must be " + width + " cells wide");
+                }
+                if (cells + width > elevations.length) {
+                    elevations = Arrays.copyOf(elevations, Math.max(2 * elevations.length, cells + width));
+                }
+                while (input.position() < lineEnd) {
+                    var value = input.next();
+                    if (value == 'S') {
+                        start = cells;
+                        value = 'a';
+                    } else if (value == 'E') {
+                        end = cells;
+                        value = 'z';
+                    }
+                    if (value < 'a' || value > 'z') throw new IllegalArgumentException("Not an elevation: " + value);
+                    elevations[cells++] = (byte) (value - 'a');
+                }
+                input.skipLine();
             }
+            if (start < 0 || end < 0) throw new IllegalStateException("Start or end is missing");
+            return new HeightMap(Arrays.copyOf(elevations, cells), width, cells / width, start, end);
         }
-        return distances[end.y()][end.x()];
-    }
 
-    private static Map.Entry<Point, Point> findStartAndEnd(int[][] elevations) {
-        Point start = null;
-        Point end = null;
-        for (int i = 0; i < elevations.length; i++) {
-            for (int j = 0; j < elevations[i].length; j++) {
-                if (elevations[i][j] == 'S') {
-                    start = new Point(j, i);
-                    elevations[i][j] = 'a';
-                } else if (elevations[i][j] == 'E') {
-                    end = new Point(j, i);
-                    elevations[i][j] = 'z';
+        /**
+         * Searches from the end along the steps in reverse: a step may climb at most one, so going backwards it may
+         * descend at most one.
+         */
+        DistanceField distancesToEnd() {
+            var distances = new ShortestPaths().from(this, end);
+            var nearest = new int[ELEVATIONS];
+            Arrays.fill(nearest, ShortestPaths.UNREACHABLE);
+            for (int cell = 0; cell < distances.length; cell++) {
+                var distance = distances[cell];
+                var elevation = elevations[cell];
+                if (distance == ShortestPaths.UNREACHABLE) continue;
+                if (nearest[elevation] == ShortestPaths.UNREACHABLE || distance < nearest[elevation]) {
+                    nearest[elevation] = distance;
                 }
-                if (start != null && end != null) return Map.entry(start, end);
             }
+            return new DistanceField(this, distances, nearest);
+        }
+
+        @Override
+        public int nodes() {
+            return elevations.length;
+        }
+
+        @Override
+        public int maxDegree() {
+            return 4;
+        }
+
+        @Override
+        public int maxWeight() {
+            return 1;
+        }
+
+        @Override
+        public boolean unitWeights() {
+            return true;
+        }
+
+        /**
+         * Reversed steps: the neighbours that can step onto the cell. Every step weighs one, so no weights are written.
+         */
+        @Override
+        public int edges(int cell, int[] targets, int[] weights) {
+            var lowest = elevations[cell] - 1;
+            var count = 0;
+            var x = cell % width;
+            if (x > 0) count = step(cell - 1, lowest, targets, count);
+            if (x < width - 1) count = step(cell + 1, lowest, targets, count);
+            if (cell >= width) count = step(cell - width, lowest, targets, count);
+            if (cell + width < elevations.length) count = step(cell + width, lowest, targets, count);
+            return count;
+        }
+
+        private int step(int from, int lowest, int[] targets, int count) {
+            if (elevations[from] < lowest) return count;
+            targets[count] = from;
+            return count + 1;
         }
-        throw new IllegalStateException("Start or end was null: " + start + ", " + end);
     }
 
-    record Point(int x, int y) {
-        public List<Point> neighbours(int[][] elevations) {
-            var neighbours = new ArrayList<Point>();
-            if (x > 0) {
-                neighbours.add(new Point(x - 1, y));
-            }
-            if (y > 0) {
-                neighbours.add(new Point(x, y - 1));
-            }
-            if (x < elevations[0].length - 1) {
-                neighbours.add(new Point(x + 1, y));
-            }
-            if (y < elevations.length - 1) {
-                neighbours.add(new Point(x, y + 1));
-            }
-            neighbours.removeIf(point -> elevations[point.y()][point.x()] > elevations[y][x] + 1);
-            return neighbours;
+    /**
+     * Length of the shortest hike from every cell to the end of a height map, -1 where the end cannot be reached.
+     */
+    record DistanceField(HeightMap map, int[] distances, int[] nearestByElevation) { // NOSONAR
+        int distance(int cell) {
+            return distances[cell];
+        }
+
+        int distance(int x, int y) {
+            return distances[y * map.width + x];
+        }
+
+        /**
+         * @param elevation 0 for 'a' to 25 for 'z'
+         * @return shortest hike to the end from any cell at that elevation, or -1 if there is none
+         */
+        int nearest(int elevation) {
+            return nearestByElevation[elevation];
         }
     }
 }
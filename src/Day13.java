@@ -1,101 +1,128 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 public class Day13 {
+    private static final Input DIVIDERS = Input.of("[[2]]\n[[6]]\n");
+    private static final int FIRST_DIVIDER = 0;
+    private static final int SECOND_DIVIDER = 6;
+
     public static void main(String[] args) throws IOException {
-        var input = Files.readString(Path.of("input13.txt"));
+        var packets = parse(Input.map(Path.of("input13.txt")));
 
-        var pairs = Arrays.stream(input.split("\n\n"))
-            .map(pair -> pair.split("\n"))
-            .map(pair -> new ItemList[]{parseList(pair[0]), parseList(pair[1])})
-            .toList();
-        part1(pairs);
-        part2(pairs);
+        System.out.println(part1(packets));
+        System.out.println(part2(packets));
     }
 
-    private static void part1(List<ItemList[]> pairs) {
-        var score = 0;
-        for (int i = 0; i < pairs.size(); i++) {
-            var pair = pairs.get(i);
-            if (pair[0].compareTo(pair[1]) < 0) {
-                score += i + 1;
-            }
+    /**
+     * Packets are not turned into trees, they are compared straight from the input.
+     */
+    static Packets parse(Input input) {
+        var starts = new int[64];
+        var count = 0;
+        while (input.hasNext()) {
+            if (count == starts.length) starts = Arrays.copyOf(starts, 2 * count);
+            if (input.peek() != '[') throw new IllegalArgumentException("Packet must be a list: " + input.nextLine());
+            starts[count++] = input.position();
+            input.skipLine();
+            input.skipWhitespace();
         }
-        System.out.println(score);
+        return new Packets(input, starts, count);
     }
 
-    private static void part2(List<ItemList[]> pairs) {
-        var allPairs = pairs.stream()
-            .flatMap(Arrays::stream)
-            .collect(Collectors.toCollection(ArrayList::new));
-        var divider1 = new ItemList(List.of(new ItemList(List.of(new Literal(2)))));
-        var divider2 = new ItemList(List.of(new ItemList(List.of(new Literal(6)))));
-        allPairs.add(divider1);
-        allPairs.add(divider2);
-
-        allPairs.sort(Item::compareTo);
-        var divider1Index = allPairs.indexOf(divider1) + 1;
-        var divider2Index = allPairs.indexOf(divider2) + 1;
-        System.out.println(divider1Index * divider2Index);
+    static int part1(Packets packets) {
+        var score = 0;
+        for (int pair = 0; 2 * pair + 1 < packets.count; pair++) {
+            if (packets.compare(2 * pair, 2 * pair + 1) < 0) score += pair + 1;
+        }
+        return score;
     }
 
-    static ItemList parseList(String line) {
-        var characters = line.toCharArray();
-        var numberStart = -1;
-        var itemStack = new ArrayDeque<List<Item>>();
-        List<Item> items = new ArrayList<>();
-        for (int i = 0; i < characters.length; i++) {
-            if (characters[i] == '[') {
-                itemStack.push(items);
-                items = new ArrayList<>();
-            } else if (characters[i] == ']') {
-                if (numberStart != -1) {
-                    items.add(new Literal(Integer.parseInt(line, numberStart, i, 10)));
-                    numberStart = -1;
-                }
-                var result = new ItemList(items);
-                items = itemStack.pop();
-                items.add(result);
-            } else if (characters[i] == ',') {
-                if (numberStart != -1) {
-                    items.add(new Literal(Integer.parseInt(line, numberStart, i, 10)));
-                    numberStart = -1;
-                }
-            } else if (numberStart == -1) {
-                numberStart = i;
-            }
+    /**
+     * The position of a divider in the sorted list is one more than the number of packets before it, so counting
+     * is enough. The second divider also comes after the first.
+     */
+    static int part2(Packets packets) {
+        var beforeFirst = 0;
+        var beforeSecond = 0;
+        for (int packet = 0; packet < packets.count; packet++) {
+            // Whatever is before the first divider is before the second one as well
+            if (packets.compareTo(packet, DIVIDERS, SECOND_DIVIDER) >= 0) continue;
+            beforeSecond++;
+            if (packets.compareTo(packet, DIVIDERS, FIRST_DIVIDER) < 0) beforeFirst++;
         }
-        return (ItemList) items.get(0);
+        return (beforeFirst + 1) * (beforeSecond + 2);
     }
 
-    sealed interface Item extends Comparable<Item> {
-        default int compareTo(Item other) {
-            if (this instanceof Literal left && other instanceof Literal right) {
-                return Integer.compare(left.value, right.value);
-            } else if (this instanceof ItemList left && other instanceof ItemList right) {
-                for (int i = 0; i < left.value.size() && i < right.value.size(); i++) {
-                    var result = left.value.get(i).compareTo(right.value.get(i));
-                    if (result != 0) return result;
-                }
-                return Integer.compare(left.value.size(), right.value.size());
-            } else if (this instanceof Literal left && other instanceof ItemList right) {
-                return new ItemList(List.of(left)).compareTo(right);
-            } else if (this instanceof ItemList left && other instanceof Literal right) {
-                return left.compareTo(new ItemList(List.of(right)));
+    /**
+     * Compares two packets by walking both byte by byte. Commas only separate, so they are skipped, and the
+     * remaining tokens are brackets and integers. When an integer meets a list, it is compared as a list holding
+     * only that integer: the other side enters its list and the integer side owes a closing bracket, which is due
+     * once the integer itself was compared. Owed brackets are counted, never written, so nothing is allocated.
+     *
+     * @param i position of the opening bracket of the left packet
+     * @param j position of the opening bracket of the right packet
+     */
+    static int compare(Input left, int i, Input right, int j) {
+        var leftOwed = 0;
+        var leftDue = 0;
+        var rightOwed = 0;
+        var rightDue = 0;
+        var depth = 0;
+        while (true) {
+            while (left.get(i) == ',') i++;
+            while (right.get(j) == ',') j++;
+            var a = leftDue > 0 ? ']' : left.get(i);
+            var b = rightDue > 0 ? ']' : right.get(j);
+
+            if (a == '[' && b == '[') {
+                i++;
+                j++;
+                depth++;
+            } else if (a == ']' && b == ']') {
+                if (leftDue > 0) leftDue--; else i++;
+                if (rightDue > 0) rightDue--; else j++;
+                if (--depth == 0) return 0;
+            } else if (a == ']') {
+                return -1;
+            } else if (b == ']') {
+                return 1;
+            } else if (a == '[') {
+                i++;
+                depth++;
+                rightOwed++;
+            } else if (b == '[') {
+                j++;
+                depth++;
+                leftOwed++;
+            } else {
+                var x = 0;
+                for (; isDigit(left.get(i)); i++) x = 10 * x + left.get(i) - '0';
+                var y = 0;
+                for (; isDigit(right.get(j)); j++) y = 10 * y + right.get(j) - '0';
+                if (x != y) return Integer.compare(x, y);
+                leftDue = leftOwed;
+                leftOwed = 0;
+                rightDue = rightOwed;
+                rightOwed = 0;
             }
-            throw new IllegalStateException("Left: " + this.getClass() + ", right: " + other.getClass());
         }
     }
 
-    record Literal(int value) implements Item {
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
     }
 
-    record ItemList(List<Item> value) implements Item {
+    /**
+     * Positions of the packets in the input, which is only read from.
+     */
+    record Packets(Input input, int[] starts, int count) { // NOSONAR
+        int compare(int left, int right) {
+            return Day13.compare(input, starts[left], input, starts[right]);
+        }
+
+        int compareTo(int packet, Input other, int start) {
+            return Day13.compare(input, starts[packet], other, start);
+        }
     }
 }
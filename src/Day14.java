@@ -1,45 +1,56 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 public class Day14 {
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input14.txt"));
+        var cave = parse(Input.map(Path.of("input14.txt")));
 
-        var filled = new HashSet<Point>();
+        System.out.println(part1(cave));
+        System.out.println(part2(cave));
+    }
+
+    static Cave parse(Input input) {
+        var filled = new PointSet();
         var maxY = 0;
-        for (var line : input) {
-            var points = line.split(" -> ");
-            Point previous = null;
-            for (var point : points) {
-                var coordinates = point.split(",");
-                var x = Integer.parseInt(coordinates[0]);
-                var y = Integer.parseInt(coordinates[1]);
+        while (input.hasNext()) {
+            var first = true;
+            var previousX = 0;
+            var previousY = 0;
+            while (!input.isLineEnd()) {
+                var x = input.nextInt();
+                var y = input.nextInt();
                 if (y > maxY) {
                     maxY = y;
                 }
 
-                if (previous != null) {
-                    for (int i = Math.min(x, previous.x()); i <= Math.max(x, previous.x()); i++) {
-                        for (int j = Math.min(previous.y(), y); j <= Math.max(y, previous.y()); j++) {
-                            filled.add(new Point(i, j));
+                if (!first) {
+                    for (int i = Math.min(x, previousX); i <= Math.max(x, previousX); i++) {
+                        for (int j = Math.min(previousY, y); j <= Math.max(y, previousY); j++) {
+                            filled.add(i, j);
                         }
                     }
                 }
-                previous = new Point(x, y);
+                first = false;
+                previousX = x;
+                previousY = y;
             }
+            input.skipLine();
         }
 
-        System.out.println(fallSand(new HashSet<>(filled), maxY, false));
-        System.out.println(fallSand(filled, maxY + 2, true));
+        return new Cave(filled, maxY);
+    }
+
+    static int part1(Cave cave) {
+        return fallSand(cave.filled.copy(), cave.maxY, false);
+    }
+
+    static int part2(Cave cave) {
+        return fallSand(cave.filled.copy(), cave.maxY + 2, true);
     }
 
-    private static int fallSand(Set<Point> filled, int maxY, boolean hasMaxFloor) {
+    private static int fallSand(PointSet filled, int maxY, boolean hasMaxFloor) {
         var sandCount = 0;
-        while (!filled.contains(new Point(500, 0))) {
+        while (!filled.contains(500, 0)) {
             int sandX = 500;
             int sandY = 0;
 
@@ -60,20 +71,20 @@ public class Day14 {
                     sandY++;
                 }
             }
-            filled.add(new Point(sandX, sandY));
+            filled.add(sandX, sandY);
             sandCount++;
 
         }
         return sandCount;
     }
 
-    static boolean canFill(Set<Point> filled, int x, int y, boolean hasFloor, int floor) {
+    static boolean canFill(PointSet filled, int x, int y, boolean hasFloor, int floor) {
         if (hasFloor && y == floor) {
             return false;
         }
-        return !filled.contains(new Point(x, y));
+        return !filled.contains(x, y);
     }
 
-    record Point(int x, int y) {
+    record Cave(PointSet filled, int maxY) {
     }
 }
@@ -1,5 +1,4 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -20,14 +19,25 @@ public class Day17 {
     };
 
     public static void main(String[] args) throws IOException {
-        var input = Files.readString(Path.of("input17.txt")).trim();
+        var commands = parse(Input.map(Path.of("input17.txt")));
 
-        var commands = input.toCharArray();
-        System.out.println(run(commands, 2022));
-        System.out.println(run(commands, 1_000_000_000_000L));
+        System.out.println(part1(commands));
+        System.out.println(part2(commands));
     }
 
-    private static long run(char[] commands, long count) {
+    static Input parse(Input input) {
+        return input.slice(input.position(), input.lineEnd());
+    }
+
+    static long part1(Input commands) {
+        return run(commands, 2022);
+    }
+
+    static long part2(Input commands) {
+        return run(commands, 1_000_000_000_000L);
+    }
+
+    private static long run(Input commands, long count) {
         var currentShape = 0;
         var currentCommand = 0;
         var highest = 0;
@@ -43,9 +53,9 @@ public class Day17 {
 
             var isMoving = true;
             while (isMoving) {
-                moveCommand(commands[currentCommand] == '<', blocked, shape);
+                moveCommand(commands.get(currentCommand) == '<', blocked, shape);
                 currentCommand++;
-                currentCommand %= commands.length;
+                currentCommand %= commands.length();
                 if (!moveDown(shape, blocked)) continue;
 
                 Arrays.stream(shape).forEach(blocked::add);
@@ -59,6 +69,7 @@ public class Day17 {
                 pastVisits.add(outcomes.size() - 1);
                 var cycleLength = findPattern(pastVisits, outcomes);
                 if (cycleLength > 0) {
+                    Metrics.add("day17.rocks", outcomes.size());
                     return computeHeight(count, highest, outcomes, cycleLength);
                 }
                 isMoving = false;
@@ -66,6 +77,7 @@ public class Day17 {
             currentShape++;
             currentShape %= SHAPES.length;
         }
+        Metrics.add("day17.rocks", outcomes.size());
         return highest;
     }
 
@@ -1,103 +1,89 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayDeque;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.function.ToIntFunction;
-import java.util.stream.Collectors;
 
 public class Day18 {
+    private static final int[][] SIDES = {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}};
+
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input18.txt"));
-        var voxels = input.stream()
-            .map(Point3d::parse)
-            .collect(Collectors.toSet());
+        var voxels = parse(Input.map(Path.of("input18.txt")));
 
-        part1(voxels);
-        part2(voxels);
+        System.out.println(part1(voxels));
+        System.out.println(part2(voxels));
     }
 
-    private static void part1(Set<Point3d> voxels) {
-        var visibleSides = 0;
-        for (var voxel : voxels) {
-            visibleSides += voxel.findVisibleSides(voxels);
+    static LongSet parse(Input input) {
+        var voxels = new LongSet();
+        while (input.hasNext()) {
+            voxels.add(Points.pack(input.nextInt(), input.nextInt(), input.nextInt()));
+            input.skipLine();
         }
-        System.out.println(visibleSides);
+        return voxels;
     }
 
-    private static void part2(Set<Point3d> voxels) {
-        var minX = min(voxels, Point3d::x) - 1;
-        var minY = min(voxels, Point3d::y) - 1;
-        var minZ = min(voxels, Point3d::z) - 1;
-        var maxX = max(voxels, Point3d::x) + 1;
-        var maxY = max(voxels, Point3d::y) + 1;
-        var maxZ = max(voxels, Point3d::z) + 1;
-
-        var water = new HashSet<Point3d>();
-        var queue = new ArrayDeque<Point3d>();
-        queue.add(new Point3d(minX, minY, minZ));
-        while (!queue.isEmpty()) {
-            var candidate = queue.poll();
-            if (candidate.x < minX || candidate.x > maxX ||
-                candidate.y < minY || candidate.y > maxY ||
-                candidate.z < minZ || candidate.z > maxZ) {
-                continue;
-            }
-
-            var neighbours = candidate.sideNeighbours();
-            for (var neighbour : neighbours) {
-                if (!voxels.contains(neighbour) && !water.contains(neighbour)) {
-                    queue.add(neighbour);
-                    water.add(neighbour);
-                }
+    static int part1(LongSet voxels) {
+        var visibleSides = 0;
+        for (var iterator = voxels.iterator(); iterator.hasNext(); ) {
+            var voxel = iterator.nextLong();
+            for (var side : SIDES) {
+                if (!voxels.contains(neighbour(voxel, side))) visibleSides++;
             }
         }
-
-        var exposed = voxels.stream()
-            .mapToLong(v -> v.sideNeighbours()
-                .stream()
-                .filter(water::contains)
-                .count())
-            .sum();
-        System.out.println(exposed);
+        return visibleSides;
     }
 
-    private static int min(Collection<Point3d> voxels, ToIntFunction<Point3d> getter) {
-        return voxels.stream().mapToInt(getter).min().orElseThrow();
-    }
-
-    private static int max(Collection<Point3d> voxels, ToIntFunction<Point3d> getter) {
-        return voxels.stream().mapToInt(getter).max().orElseThrow();
-    }
-
-    record Point3d(int x, int y, int z) {
-        public static Point3d parse(String line) {
-            var parts = line.split(",");
-            return new Point3d(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    static long part2(LongSet voxels) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (var iterator = voxels.iterator(); iterator.hasNext(); ) {
+            var voxel = iterator.nextLong();
+            minX = Math.min(minX, Points.x3(voxel));
+            minY = Math.min(minY, Points.y3(voxel));
+            minZ = Math.min(minZ, Points.z3(voxel));
+            maxX = Math.max(maxX, Points.x3(voxel));
+            maxY = Math.max(maxY, Points.y3(voxel));
+            maxZ = Math.max(maxZ, Points.z3(voxel));
         }
+        minX--;
+        minY--;
+        minZ--;
+        maxX++;
+        maxY++;
+        maxZ++;
+
+        // Every cell of the bounding box is queued at most once
+        var queue = new long[(maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1)];
+        var head = 0;
+        var tail = 0;
+        var water = new LongSet();
+        var start = Points.pack(minX, minY, minZ);
+        queue[tail++] = start;
+        water.add(start);
+        while (head < tail) {
+            var candidate = queue[head++];
+            for (var side : SIDES) {
+                var neighbour = neighbour(candidate, side);
+                var x = Points.x3(neighbour);
+                var y = Points.y3(neighbour);
+                var z = Points.z3(neighbour);
+                if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) continue;
 
-        public List<Point3d> sideNeighbours() {
-            return List.of(
-                new Point3d(x - 1, y, z),
-                new Point3d(x + 1, y, z),
-                new Point3d(x, y - 1, z),
-                new Point3d(x, y + 1, z),
-                new Point3d(x, y, z - 1),
-                new Point3d(x, y, z + 1)
-            );
+                if (!voxels.contains(neighbour) && water.add(neighbour)) {
+                    queue[tail++] = neighbour;
+                }
+            }
         }
 
-        public int findVisibleSides(Set<Point3d> voxels) {
-            var neighbours = sideNeighbours();
-            int visible = neighbours.size();
-            for (var neighbour : neighbours) {
-                if (voxels.contains(neighbour)) visible--;
+        var exposed = 0L;
+        for (var iterator = voxels.iterator(); iterator.hasNext(); ) {
+            var voxel = iterator.nextLong();
+            for (var side : SIDES) {
+                if (water.contains(neighbour(voxel, side))) exposed++;
             }
-            return visible;
         }
+        return exposed;
+    }
+
+    private static long neighbour(long voxel, int[] side) {
+        return Points.pack(Points.x3(voxel) + side[0], Points.y3(voxel) + side[1], Points.z3(voxel) + side[2]);
     }
 }
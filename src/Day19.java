@@ -1,52 +1,49 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 public class Day19 {
-    private static final Pattern BLUEPRINT_REGEX = Pattern.compile("Blueprint (\\d+): Each ore robot costs (\\d+) ore. Each clay robot costs (\\d+) ore. Each obsidian robot costs (\\d+) ore and (\\d+) clay. Each geode robot costs (\\d+) ore and (\\d+) obsidian.");
-
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input19.txt"));
+        var blueprints = parse(Input.map(Path.of("input19.txt")));
 
-        var blueprints = input.stream()
-            .map(Blueprint::parse)
-            .toList();
+        System.out.println(part1(blueprints));
+        System.out.println(part2(blueprints));
+    }
 
-        part1(blueprints);
-        part2(blueprints);
+    static List<Blueprint> parse(Input input) {
+        var blueprints = new ArrayList<Blueprint>();
+        while (input.hasNext()) {
+            blueprints.add(Blueprint.parse(input));
+            input.skipLine();
+        }
+        return blueprints;
     }
 
-    private static void part1(List<Blueprint> blueprints) {
-        var score = blueprints.stream()
+    static long part1(List<Blueprint> blueprints) {
+        return blueprints.stream()
             .mapToLong(b -> b.simulate(24) * b.id)
             .sum();
-        System.out.println(score);
     }
 
-    private static void part2(List<Blueprint> blueprints) {
-        var score = blueprints.stream()
+    static long part2(List<Blueprint> blueprints) {
+        return blueprints.stream()
             .limit(3)
             .mapToLong(b -> b.simulate(32))
             .reduce((a, b) -> a * b)
             .orElseThrow();
-        System.out.println(score);
     }
 
     record Blueprint(int id, int[] ore, int[] clay, int[] obsidian, int[] geode) {
-        static Blueprint parse(String line) {
-            var matcher = BLUEPRINT_REGEX.matcher(line);
-            if (!matcher.matches()) throw new IllegalArgumentException("Parsing failed");
-
+        static Blueprint parse(Input line) {
             return new Blueprint(
-                Integer.parseInt(matcher.group(1)),
-                new int[]{Integer.parseInt(matcher.group(2)), 0, 0, 0}, // Ore
-                new int[]{Integer.parseInt(matcher.group(3)), 0, 0, 0}, // Clay
-                new int[]{Integer.parseInt(matcher.group(4)), Integer.parseInt(matcher.group(5)), 0, 0}, // Obsidian
-                new int[]{Integer.parseInt(matcher.group(6)), 0, Integer.parseInt(matcher.group(7)), 0} // Geode
+                line.nextInt(),
+                new int[]{line.nextInt(), 0, 0, 0}, // Ore
+                new int[]{line.nextInt(), 0, 0, 0}, // Clay
+                new int[]{line.nextInt(), line.nextInt(), 0, 0}, // Obsidian
+                new int[]{line.nextInt(), 0, line.nextInt(), 0} // Geode
             );
         }
 
@@ -74,6 +71,10 @@ public class Day19 {
     static class Simulation {
         private final Blueprint blueprint;
         private int maxGeodes;
+        private long states;
+        // Ores and robots of the states on the current path, indexed by depth, so recursing allocates nothing
+        private int[][] ores;
+        private int[][] robots;
 
         public Simulation(Blueprint blueprint) {
             this.blueprint = blueprint;
@@ -86,59 +87,62 @@ public class Day19 {
                 maxRobots[i] = IntStream.of(blueprint.ore[i], blueprint.clay[i], blueprint.obsidian[i], blueprint.geode[i]).max().orElseThrow();
             }
 
-            recurse(new State(), time, maxRobots);
+            // Every step takes at least a minute, so the path never holds more than one state per minute
+            ores = new int[time + 1][4];
+            robots = new int[time + 1][4];
+            robots[0][0] = 1;
+            recurse(0, 0, time, maxRobots);
+            Metrics.add("day19.states", states);
             return maxGeodes;
         }
 
-        private void recurse(State state, int maxTime, int[] maxRobots) {
+        private void recurse(int depth, int time, int maxTime, int[] maxRobots) {
+            states++;
+            var currentOres = ores[depth];
+            var currentRobots = robots[depth];
             var hasRecursed = false;
             for (int currentResource = 0; currentResource < 4; currentResource++) {
-                if (state.robots[currentResource] == maxRobots[currentResource]) continue;
+                if (currentRobots[currentResource] == maxRobots[currentResource]) continue;
 
                 var recipe = selectRecipe(currentResource);
-                var waitTime = getWaitTime(state, maxTime, recipe);
-                var timeAfter = state.time + waitTime + 1;
+                var waitTime = getWaitTime(currentOres, currentRobots, maxTime, recipe);
+                var timeAfter = time + waitTime + 1;
                 if (timeAfter >= maxTime) continue;
 
-                var newOres = new int[4];
-                var newRobots = new int[4];
-                updateState(state, recipe, waitTime, currentResource, newOres, newRobots);
+                var newOres = ores[depth + 1];
+                var newRobots = robots[depth + 1];
+                updateState(currentOres, currentRobots, recipe, waitTime, currentResource, newOres, newRobots);
 
                 var remaining = maxTime - timeAfter;
                 if (((remaining - 1) * remaining) / 2 + newOres[3] + remaining * newRobots[3] < maxGeodes) continue;
 
                 hasRecursed = true;
-                recurse(new State(newOres, newRobots, timeAfter), maxTime, maxRobots);
+                recurse(depth + 1, timeAfter, maxTime, maxRobots);
             }
             if (!hasRecursed) {
                 maxGeodes = Math.max(
-                    maxGeodes, state.ores[3] + state.robots[3] * (maxTime - state.time)
+                    maxGeodes, currentOres[3] + currentRobots[3] * (maxTime - time)
                 );
             }
         }
 
-        private void updateState(State state, int[] recipe, int waitTime, int currentResource, int[] newOres, int[] newRobots) {
+        private static void updateState(int[] ores, int[] robots, int[] recipe, int waitTime, int currentResource, int[] newOres, int[] newRobots) {
             for (int ore = 0; ore < 4; ore++) {
-                newOres[ore] = state.ores[ore] + state.robots[ore] * (waitTime + 1) - recipe[ore];
-                newRobots[ore] = state.robots[ore] + (ore == currentResource ? 1 : 0);
+                newOres[ore] = ores[ore] + robots[ore] * (waitTime + 1) - recipe[ore];
+                newRobots[ore] = robots[ore] + (ore == currentResource ? 1 : 0);
             }
         }
 
-        private static int getWaitTime(State state, int maxTime, int[] recipe) {
-            return IntStream.range(0, 3)
-                .filter(oreType -> recipe[oreType] != 0)
-                .mapMulti((oreType, consumer) -> {
-                    if (recipe[oreType] <= state.ores[oreType]) {
-                        consumer.accept(0);
-                    } else if (state.robots[oreType] == 0) {
-                        consumer.accept(maxTime + 1);
-                    } else {
-                        var output = (recipe[oreType] - state.ores[oreType] + state.robots[oreType] - 1) / state.robots[oreType];
-                        consumer.accept(output);
-                    }
-                })
-                .max()
-                .orElseThrow();
+        private static int getWaitTime(int[] ores, int[] robots, int maxTime, int[] recipe) {
+            var waitTime = 0;
+            for (int oreType = 0; oreType < 3; oreType++) {
+                if (recipe[oreType] <= ores[oreType]) continue;
+
+                var wait = robots[oreType] == 0 ? maxTime + 1
+                    : (recipe[oreType] - ores[oreType] + robots[oreType] - 1) / robots[oreType];
+                waitTime = Math.max(waitTime, wait);
+            }
+            return waitTime;
         }
 
         private int[] selectRecipe(int i) {
@@ -151,10 +155,4 @@ public class Day19 {
             };
         }
     }
-
-    record State(int[] ores, int[] robots, int time) { // NOSONAR
-        State() {
-            this(new int[4], new int[]{1, 0, 0, 0}, 0);
-        }
-    }
 }
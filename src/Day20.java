@@ -1,23 +1,28 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.function.IntToLongFunction;
+import java.util.stream.LongStream;
 
 public class Day20 {
     private static final long ENCRYPTION_KEY = 811_589_153;
 
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input20.txt"));
+        var numbers = parse(Input.map(Path.of("input20.txt")));
 
-        var numbers = input.stream()
-            .mapToLong(Long::parseLong)
-            .toArray();
+        System.out.println(part1(numbers));
+        System.out.println(part2(numbers));
+    }
 
-        part1(numbers);
-        part2(numbers);
+    static long[] parse(Input input) {
+        var numbers = LongStream.builder();
+        while (input.hasNext()) {
+            numbers.add(input.nextLong());
+            input.skipLine();
+        }
+        return numbers.build().toArray();
     }
 
-    private static void part1(long[] numbers) {
+    static long part1(long[] numbers) {
         var data = new Node[numbers.length];
         var zero = makeNodes(numbers, data, i -> numbers[i]);
 
@@ -25,10 +30,10 @@ public class Day20 {
 
         mix(numbers, data);
 
-        findAndPrintAnswer(data, zero);
+        return findAnswer(data, zero);
     }
 
-    private static void part2(long[] numbers) {
+    static long part2(long[] numbers) {
         var data = new Node[numbers.length];
         var zero = makeNodes(numbers, data, i -> numbers[i] * ENCRYPTION_KEY);
 
@@ -38,7 +43,7 @@ public class Day20 {
             mix(numbers, data);
         }
 
-        findAndPrintAnswer(data, zero);
+        return findAnswer(data, zero);
     }
 
     private static int makeNodes(long[] numbers, Node[] data, IntToLongFunction valueMapper) {
@@ -89,7 +94,7 @@ public class Day20 {
         }
     }
 
-    private static void findAndPrintAnswer(Node[] data, int zero) {
+    private static long findAnswer(Node[] data, int zero) {
         var current = zero;
         var answer = 0L;
         for (int i = 1; i <= 3000; i++) {
@@ -98,7 +103,7 @@ public class Day20 {
                 answer += data[current].value;
             }
         }
-        System.out.println(answer);
+        return answer;
     }
 
     private static long wrap(long number, int n) {
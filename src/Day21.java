@@ -1,44 +1,53 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.LongUnaryOperator;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Day21 {
-    private static final Pattern EXPRESSION = Pattern.compile("(\\w+) ([+\\-*/]) (\\w+)");
-
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input21.txt"));
+        var riddle = parse(Input.map(Path.of("input21.txt")));
+
+        System.out.println(part1(riddle));
+        System.out.println(part2(riddle));
+    }
 
+    static Riddle parse(Input input) {
         var literals = new HashMap<String, Long>();
         var expressions = new ArrayList<Expression>();
-        for (var line : input) {
-            var nameAndOperation = line.split(": ");
-            if (!nameAndOperation[1].contains(" ")) {
-                literals.put(nameAndOperation[0], Long.parseLong(nameAndOperation[1]));
+        while (input.hasNext()) {
+            var name = input.nextString(input.indexOf((byte) ':', input.position()) - input.position());
+            input.skip(": ".length());
+            if (input.startsWith("-") || Character.isDigit(input.peek())) {
+                literals.put(name, input.nextLong());
             } else {
-                var matcher = EXPRESSION.matcher(nameAndOperation[1]);
-                if (!matcher.matches()) throw new IllegalArgumentException(nameAndOperation[1]);
-
-                var left = matcher.group(1);
-                var operator = matcher.group(2);
-                var right = matcher.group(3);
-                expressions.add(new Expression(nameAndOperation[0], left, right, operator));
+                var left = input.nextWord();
+                input.skip(1);
+                var operator = input.nextWord();
+                input.skip(1);
+                var right = input.nextWord();
+                expressions.add(new Expression(name, left, right, operator));
             }
+            input.skipLine();
         }
+        return new Riddle(literals, expressions);
+    }
 
-        // For part 2
+    static long part1(Riddle riddle) {
+        return riddle.simplify().get("root");
+    }
+
+    static long part2(Riddle riddle) {
+        var expressions = riddle.expressions;
         var pathToHuman = new ArrayList<Expression>();
         var byName = expressions.stream()
             .collect(Collectors.toMap(Expression::name, Function.identity()));
 
-        // For part 2
         var needle = "humn";
         while (true) {
             var finalNeedle = needle;
@@ -52,21 +61,7 @@ public class Day21 {
             needle = next.name;
         }
 
-        // Simplify
-        var queue = new ArrayDeque<>(expressions);
-        while (!queue.isEmpty()) {
-            performOperation(literals, queue);
-        }
-
-        part1(literals);
-        part2(literals, byName, pathToHuman);
-    }
-
-    private static void part1(Map<String, Long> literals) {
-        System.out.println(literals.get("root"));
-    }
-
-    private static void part2(Map<String, Long> literals, Map<String, Expression> byName, ArrayList<Expression> pathToHuman) {
+        var literals = riddle.simplify();
         var root = byName.get("root");
 
         literals.remove("humn");
@@ -88,7 +83,7 @@ public class Day21 {
         for (var operation : operations) {
             targetValue = operation.applyAsLong(targetValue);
         }
-        System.out.println(targetValue);
+        return targetValue;
     }
 
     private static void performOperation(Map<String, Long> literals, ArrayDeque<Expression> queue) {
@@ -111,6 +106,17 @@ public class Day21 {
         literals.put(item.name, value);
     }
 
+    record Riddle(Map<String, Long> literals, List<Expression> expressions) {
+        Map<String, Long> simplify() {
+            var simplified = new HashMap<>(literals);
+            var queue = new ArrayDeque<>(expressions);
+            while (!queue.isEmpty()) {
+                performOperation(simplified, queue);
+            }
+            return simplified;
+        }
+    }
+
     record Expression(String name, String left, String right, String operation) {
         public LongUnaryOperator reverse(Map<String, Long> literals) {
             // equation in form a = b <op> c
@@ -1,5 +1,4 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,11 +12,37 @@ public class Day22 {
     private static final int UP = 3;
 
     public static void main(String[] args) throws IOException {
-        var input = Files.readString(Path.of("input22.txt"));
-        var parts = input.split("\n\n");
-        var fieldLines = parts[0].split("\n");
-        var commands = Command.parse(parts[1].trim());
+        var notes = parse(Input.map(Path.of("input22.txt")));
 
+        System.out.println(part1(notes));
+        System.out.println(part2(notes));
+    }
+
+    static Notes parse(Input input) {
+        var fieldLines = new ArrayList<String>();
+        while (!input.isLineEnd()) {
+            fieldLines.add(input.nextLine());
+        }
+        input.skipLine();
+        return new Notes(fieldLines.toArray(String[]::new), Command.parse(input));
+    }
+
+    static int part1(Notes notes) {
+        var board = buildBoard(notes.fieldLines);
+        return walk(board.start, notes.commands);
+    }
+
+    static int part2(Notes notes) {
+        var board = buildBoard(notes.fieldLines);
+        var tiles = board.tiles;
+        var a = tiles.length / 4;
+        for (int i = 0; i < a; i++) {
+            stitch(tiles, a, i);
+        }
+        return walk(board.start, notes.commands);
+    }
+
+    private static Board buildBoard(String[] fieldLines) {
         Tile start = null;
         var width = Arrays.stream(fieldLines).mapToInt(String::length).max().orElseThrow();
         var tiles = new Tile[fieldLines.length][width];
@@ -57,12 +82,10 @@ public class Day22 {
                 top.neighbors[DOWN] = tile;
                 tile.neighbors[UP] = top;
             });
-
-        part1(start, commands);
-        part2(start, commands, tiles);
+        return new Board(start, tiles);
     }
 
-    private static void part1(Tile start, List<Command> commands) {
+    private static int walk(Tile start, List<Command> commands) {
         var current = start;
         int facing = RIGHT;
         for (var command : commands) {
@@ -82,21 +105,13 @@ public class Day22 {
                 }
             }
         }
-        System.out.println(1000 * (current.y + 1) + 4 * (current.x + 1) + facing);
+        return 1000 * (current.y + 1) + 4 * (current.x + 1) + facing;
     }
 
     private static int wrap(int number) {
         return ((number % 4) + 4) % 4;
     }
 
-    private static void part2(Tile start, List<Command> commands, Tile[][] tiles) {
-        var a = tiles.length / 4;
-        for (int i = 0; i < a; i++) {
-            stitch(tiles, a, i);
-        }
-        part1(start, commands);
-    }
-
     /**
      * Layout:
      * _12
@@ -154,10 +169,11 @@ public class Day22 {
     }
 
     sealed interface Command {
-        static List<Command> parse(String line) {
+        static List<Command> parse(Input line) {
             var commands = new ArrayList<Command>();
             int steps = 0;
-            for (var c : line.toCharArray()) {
+            while (!line.isLineEnd()) {
+                var c = line.next();
                 if (Character.isDigit(c)) {
                     steps *= 10;
                     steps += c - '0';
@@ -169,6 +185,7 @@ public class Day22 {
                     commands.add(new Direction(c == 'L'));
                 }
             }
+            line.skipLine();
             if (steps != 0) {
                 commands.add(new Walk(steps));
             }
@@ -176,6 +193,12 @@ public class Day22 {
         }
     }
 
+    record Notes(String[] fieldLines, List<Command> commands) { // NOSONAR
+    }
+
+    record Board(Tile start, Tile[][] tiles) { // NOSONAR
+    }
+
     record Walk(int steps) implements Command {
     }
 
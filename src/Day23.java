@@ -1,134 +1,141 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class Day23 {
     private static final ProposedMove MOVE_NORTH = (neighbours, proposed, elf) -> {
         if (northEmpty(neighbours)) {
-            proposed.put(elf, new Point(elf.x, elf.y - 1));
+            proposed.put(elf, Points.pack(Points.x(elf), Points.y(elf) - 1));
             return true;
         }
         return false;
     };
     private static final ProposedMove MOVE_SOUTH = (neighbours, proposed, elf) -> {
         if (southEmpty(neighbours)) {
-            proposed.put(elf, new Point(elf.x, elf.y + 1));
+            proposed.put(elf, Points.pack(Points.x(elf), Points.y(elf) + 1));
             return true;
         }
         return false;
     };
     private static final ProposedMove MOVE_WEST = (neighbours, proposed, elf) -> {
         if (westEmpty(neighbours)) {
-            proposed.put(elf, new Point(elf.x - 1, elf.y));
+            proposed.put(elf, Points.pack(Points.x(elf) - 1, Points.y(elf)));
             return true;
         }
         return false;
     };
     private static final ProposedMove MOVE_EAST = (neighbours, proposed, elf) -> {
         if (eastEmpty(neighbours)) {
-            proposed.put(elf, new Point(elf.x + 1, elf.y));
+            proposed.put(elf, Points.pack(Points.x(elf) + 1, Points.y(elf)));
             return true;
         }
         return false;
     };
+    private static final int[] NEIGHBOUR_X = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int[] NEIGHBOUR_Y = {-1, -1, -1, 0, 0, 1, 1, 1};
     private static final List<ProposedMove> PROPOSITIONS = List.of(MOVE_NORTH, MOVE_SOUTH, MOVE_WEST, MOVE_EAST);
 
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input23.txt"));
+        var elves = parse(Input.map(Path.of("input23.txt")));
 
-        var elves = new HashSet<Point>();
-        for (int y = 0; y < input.size(); y++) {
-            var chars = input.get(y).toCharArray();
-            for (int x = 0; x < chars.length; x++) {
-                if (chars[x] == '#') elves.add(new Point(x, y));
+        System.out.println(part1(elves));
+        System.out.println(part2(elves));
+    }
+
+    static PointSet parse(Input input) {
+        var elves = new PointSet();
+        for (int y = 0; input.hasNext(); y++) {
+            for (int x = 0; !input.isLineEnd(); x++) {
+                if (input.next() == '#') elves.add(x, y);
             }
+            input.skipLine();
         }
 
-        part1(elves);
-        part2(elves);
+        return elves;
     }
 
-    private static void part1(Set<Point> elves) {
+    static int part1(PointSet elves) {
+        var grove = new Grove(elves);
         for (int i = 0; i < 10; i++) {
-            elves = doStep(elves, i);
-        }
-        var minX = Integer.MAX_VALUE;
-        var maxX = Integer.MIN_VALUE;
-        var minY = Integer.MAX_VALUE;
-        var maxY = Integer.MIN_VALUE;
-        for (var elf : elves) {
-            if (elf.x < minX) minX = elf.x;
-            if (elf.x > maxX) maxX = elf.x;
-            if (elf.y < minY) minY = elf.y;
-            if (elf.y > maxY) maxY = elf.y;
+            grove.step(i);
         }
-        var width = maxX - minX + 1;
-        var height = maxY - minY + 1;
+        var positions = grove.elves;
+        var width = positions.maxX() - positions.minX() + 1;
+        var height = positions.maxY() - positions.minY() + 1;
         var area = width * height;
-        System.out.println(area - elves.size());
+        return area - positions.size();
     }
 
-    private static void part2(Set<Point> elves) {
+    static int part2(PointSet elves) {
+        var grove = new Grove(elves);
         var steps = 0;
-        while (true) {
-            var newElves = doStep(elves, steps);
-            if (newElves.equals(elves)) {
-                System.out.println(steps + 1);
-                return;
-            }
-            elves = newElves;
+        while (grove.step(steps) > 0) {
             steps++;
         }
+        return steps + 1;
     }
 
-    private static HashSet<Point> doStep(Set<Point> elves, int currentStep) {
-        // First half
-        var proposedPositions = new HashMap<Point, Point>();
-        var newPositions = new HashSet<Point>();
-        for (var elf : elves) {
-            var neighbours = new boolean[8];
-            var coordinates = neighbours(elf.x, elf.y);
-            for (int j = 0; j < neighbours.length; j++) {
-                var neighbour = coordinates[j];
-                neighbours[j] = elves.contains(neighbour);
-            }
-            if (allEmpty(neighbours)) {
-                newPositions.add(elf);
-                continue;
-            }
-            if (cannotMove(currentStep, proposedPositions, elf, neighbours)) {
-                newPositions.add(elf);
-            }
+    /**
+     * Elves on a copy of the parsed positions. The tables of a round are cleared and reused for the next one instead
+     * of allocated again, and the positions are written to a second set that takes turns with the current one.
+     */
+    static final class Grove {
+        private PointSet elves;
+        private PointSet next;
+        private final LongLongMap proposedPositions;
+        private final LongLongMap uniquePositions;
+
+        Grove(PointSet elves) {
+            this.elves = elves.copy();
+            next = new PointSet(elves.size());
+            proposedPositions = new LongLongMap(elves.size());
+            uniquePositions = new LongLongMap(elves.size());
         }
 
-        // Second half
-        var uniquePositions = proposedPositions.values()
-            .stream()
-            .collect(Collectors.toMap(Function.identity(), e -> 1, Math::addExact));
-        for (var elfPair : proposedPositions.entrySet()) {
-            var current = elfPair.getKey();
-            var value = elfPair.getValue();
-            if (uniquePositions.get(value) > 1 || newPositions.contains(value)) {
-                newPositions.add(current);
-            } else {
-                newPositions.add(value);
+        /**
+         * @return number of elves that moved
+         */
+        int step(int currentStep) {
+            // First half
+            proposedPositions.clear();
+            next.clear();
+            for (var iterator = elves.iterator(); iterator.hasNext(); ) {
+                var elf = iterator.nextLong();
+                var x = Points.x(elf);
+                var y = Points.y(elf);
+                var neighbours = 0;
+                for (int j = 0; j < NEIGHBOUR_X.length; j++) {
+                    if (elves.contains(x + NEIGHBOUR_X[j], y + NEIGHBOUR_Y[j])) neighbours |= 1 << j;
+                }
+                if (neighbours == 0 || cannotMove(currentStep, proposedPositions, elf, neighbours)) {
+                    next.add(elf);
+                }
+            }
+
+            // Second half
+            uniquePositions.clear();
+            proposedPositions.forEach((current, value) -> uniquePositions.addTo(value, 1));
+            var moved = new int[1];
+            proposedPositions.forEach((current, value) -> {
+                if (uniquePositions.get(value, 0) > 1 || next.contains(value)) {
+                    next.add(current);
+                } else {
+                    next.add(value);
+                    moved[0]++;
+                }
+            });
+            if (elves.size() != next.size()) {
+                throw new IllegalStateException("Sizes: " + elves.size() + ", " + next.size());
             }
-        }
-        if (elves.size() != newPositions.size()) {
-            throw new IllegalStateException("Sizes: " + elves.size() + ", " + newPositions.size());
-        }
 
-        return newPositions;
+            var previous = elves;
+            elves = next;
+            next = previous;
+            return moved[0];
+        }
     }
 
-    private static boolean cannotMove(int i, Map<Point, Point> proposedPositions, Point elf, boolean[] neighbours) {
+    private static boolean cannotMove(int i, LongLongMap proposedPositions, long elf, int neighbours) {
         for (int j = 0; j < PROPOSITIONS.size(); j++) {
             if (PROPOSITIONS.get((j + i) % PROPOSITIONS.size()).propose(neighbours, proposedPositions, elf)) {
                 return false;
@@ -137,42 +144,27 @@ public class Day23 {
         return true;
     }
 
-    private static boolean northEmpty(boolean[] neighbours) {
-        return !(neighbours[0] || neighbours[1] || neighbours[2]);
-    }
-
-    private static boolean southEmpty(boolean[] neighbours) {
-        return !(neighbours[5] || neighbours[6] || neighbours[7]);
-    }
-
-    private static boolean westEmpty(boolean[] neighbours) {
-        return !(neighbours[0] || neighbours[3] || neighbours[5]);
-    }
-
-    private static boolean eastEmpty(boolean[] neighbours) {
-        return !(neighbours[2] || neighbours[4] || neighbours[7]);
+    private static boolean northEmpty(int neighbours) {
+        return (neighbours & 0b0000_0111) == 0;
     }
 
-    private static boolean allEmpty(boolean[] neighbours) {
-        for (var neighbour : neighbours) {
-            if (neighbour) return false;
-        }
-        return true;
+    private static boolean southEmpty(int neighbours) {
+        return (neighbours & 0b1110_0000) == 0;
     }
 
-    static Point[] neighbours(int x, int y) {
-        return new Point[]{
-            new Point(x - 1, y - 1), new Point(x, y - 1), new Point(x + 1, y - 1),
-            new Point(x - 1, y), new Point(x + 1, y),
-            new Point(x - 1, y + 1), new Point(x, y + 1), new Point(x + 1, y + 1)
-        };
+    private static boolean westEmpty(int neighbours) {
+        return (neighbours & 0b0010_1001) == 0;
     }
 
-    record Point(int x, int y) {
+    private static boolean eastEmpty(int neighbours) {
+        return (neighbours & 0b1001_0100) == 0;
     }
 
     @FunctionalInterface
     interface ProposedMove {
-        boolean propose(boolean[] neighbours, Map<Point, Point> proposedPositions, Point current);
+        /**
+         * @param neighbours bit {@code j} set when the neighbour at {@code NEIGHBOUR_X[j], NEIGHBOUR_Y[j]} is an elf
+         */
+        boolean propose(int neighbours, LongLongMap proposedPositions, long current);
     }
 }
@@ -1,15 +1,11 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 public class Day24 {
     private static final int[][] MOVEMENTS = {
@@ -21,88 +17,107 @@ public class Day24 {
     };
 
     public static void main(String[] args) throws IOException {
-        var input = Files.readAllLines(Path.of("input24.txt"));
+        var valley = parse(Input.map(Path.of("input24.txt")));
 
-        var entrance = new Point(input.get(0).indexOf('.'), 0);
-        var exit = new Point(input.get(input.size() - 1).indexOf('.'), input.size() - 1);
+        System.out.println(part1(valley));
+        System.out.println(part2(valley));
+    }
+
+    static Valley parse(Input text) {
+        var input = new ArrayList<byte[]>();
+        while (text.hasNext()) {
+            var row = new byte[text.lineEnd() - text.position()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = text.next();
+            }
+            input.add(row);
+            text.skipLine();
+        }
+        var entrance = new Point(indexOf(input.get(0), '.'), 0);
+        var exit = new Point(indexOf(input.get(input.size() - 1), '.'), input.size() - 1);
 
-        var width = input.get(0).length();
+        var width = input.get(0).length;
         var height = input.size();
 
         // Don't count walls in size
         var period = (width - 2) * (height - 2) / gcd(width - 2, height - 2);
 
         var states = makeStates(input, width, height, period);
+        return new Valley(states, width, height, period, entrance, exit);
+    }
 
-        var part1 = solve(states, 0, width, height, period, entrance, exit);
-        System.out.println(part1);
-        var back = solve(states, part1, width, height, period, exit, entrance);
-        var backAgain = solve(states, part1 + back, width, height, period, entrance, exit);
-        System.out.println(part1 + back + backAgain);
+    static int part1(Valley valley) {
+        return valley.solve(0, valley.entrance, valley.exit);
     }
 
-    private static List<Set<Point>> makeStates(List<String> input, int width, int height, int period) {
-        var states = new ArrayList<Set<Blizzard>>();
-        for (int i = 0; i < period; i++) {
-            states.add(new HashSet<>());
-        }
+    static int part2(Valley valley) {
+        var there = valley.solve(0, valley.entrance, valley.exit);
+        var back = valley.solve(there, valley.exit, valley.entrance);
+        var backAgain = valley.solve(there + back, valley.entrance, valley.exit);
+        return there + back + backAgain;
+    }
 
+    private static List<LongSet> makeStates(List<byte[]> input, int width, int height, int period) {
+        var blizzards = new ArrayList<Blizzard>();
         for (int y = 0; y < input.size(); y++) {
-            handleBlizzard(input, states, y);
+            handleBlizzard(input, blizzards, y);
+        }
 
-            computeState(width, height, period, states);
+        var states = new ArrayList<LongSet>();
+        for (int i = 0; i < period; i++) {
+            states.add(new LongSet(blizzards.size()));
         }
-        return states.stream()
-            .map(state -> state.stream().map(b -> new Point(b.x, b.y)).collect(Collectors.toSet()))
-            .toList();
-    }
-
-    private static void computeState(int width, int height, int period, ArrayList<Set<Blizzard>> states) {
-        for (int time = 0; time < period - 1; time++) {
-            for (var blizzard : states.get(time)) {
-                var movement = MOVEMENTS[blizzard.rotation];
-                var newX = (blizzard.x + movement[0]) % (width - 2);
-                var newY = (blizzard.y + movement[1]) % (height - 2);
-                if (newX == 0) newX = width - 2;
-                if (newY == 0) newY = height - 2;
-                states.get(time + 1).add(new Blizzard(newX, newY, blizzard.rotation));
+        for (var blizzard : blizzards) {
+            var movement = MOVEMENTS[blizzard.rotation];
+            var x = blizzard.x;
+            var y = blizzard.y;
+            for (int time = 0; time < period; time++) {
+                states.get(time).add(Points.pack(x, y));
+                x = (x + movement[0]) % (width - 2);
+                y = (y + movement[1]) % (height - 2);
+                if (x == 0) x = width - 2;
+                if (y == 0) y = height - 2;
             }
         }
+        return states;
     }
 
-    private static void handleBlizzard(List<String> input, ArrayList<Set<Blizzard>> states, int y) {
-        for (int x = 0; x < input.get(y).length(); x++) {
-            switch (input.get(y).charAt(x)) {
-                case '>' -> states.get(0).add(new Blizzard(x, y, 0));
-                case 'v' -> states.get(0).add(new Blizzard(x, y, 1));
-                case '<' -> states.get(0).add(new Blizzard(x, y, 2));
-                case '^' -> states.get(0).add(new Blizzard(x, y, 3));
+    private static void handleBlizzard(List<byte[]> input, List<Blizzard> blizzards, int y) {
+        for (int x = 0; x < input.get(y).length; x++) {
+            switch (input.get(y)[x]) {
+                case '>' -> blizzards.add(new Blizzard(x, y, 0));
+                case 'v' -> blizzards.add(new Blizzard(x, y, 1));
+                case '<' -> blizzards.add(new Blizzard(x, y, 2));
+                case '^' -> blizzards.add(new Blizzard(x, y, 3));
             }
         }
     }
 
-    private static int solve(List<Set<Point>> states, int startTime, int width, int height, int period, Point start, Point end) {
+    private static int solve(List<LongSet> states, int startTime, int width, int height, int period, Point start, Point end) {
         int[][][] distances = makeDistances(width, height, period);
         distances[startTime % period][start.y][start.x] = 0;
 
         var queue = new PriorityQueue<>(Comparator.comparing(State::distance));
         queue.add(new State(0, startTime % period, start.x, start.y));
 
+        var pops = 0L;
         while (!queue.isEmpty()) {
             var state = queue.poll();
+            pops++;
             if (distances[state.time][state.y][state.x] != state.distance) continue; // We got a better solution
 
             handleMovements(states, width, height, period, start, end, distances, queue, state);
         }
+        Metrics.add("day24.queuePops", pops);
         return findBest(period, end, distances);
     }
 
-    private static void handleMovements(List<Set<Point>> states, int width, int height, int period, Point start, Point end, int[][][] distances, Queue<State> queue, State state) {
+    private static void handleMovements(List<LongSet> states, int width, int height, int period, Point start, Point end, int[][][] distances, Queue<State> queue, State state) {
         for (var option : MOVEMENTS) {
             var newX = state.x + option[0] % width;
             var newY = state.y + option[1] % height;
             if (isInvalid(newX, newY, start, end, width, height)) continue; // Wall
-            if (states.get((state.time + 1) % period).contains(new Point(newX, newY))) {
+            if (states.get((state.time + 1) % period).contains(Points.pack(newX, newY))) {
                 continue; // Blizzard in next step
             }
             if (distances[(state.time + 1) % period][newY][newX] > state.distance + 1) {
@@ -137,6 +152,13 @@ public class Day24 {
         return newY <= 0 || newY >= height - 1;
     }
 
+    private static int indexOf(byte[] row, char value) {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == value) return i;
+        }
+        return -1;
+    }
+
     private static int gcd(int a, int b) {
         while (b != 0) {
             var tmp = a;
@@ -146,6 +168,12 @@ public class Day24 {
         return a;
     }
 
+    record Valley(List<LongSet> states, int width, int height, int period, Point entrance, Point exit) {
+        int solve(int startTime, Point start, Point end) {
+            return Day24.solve(states, startTime, width, height, period, start, end);
+        }
+    }
+
     record State(int distance, int time, int x, int y) {
     }
 
@@ -1,40 +1,35 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.util.stream.LongStream;
 
 public class Day25 {
     public static void main(String[] args) throws IOException {
-        var input = Arrays.asList("""
-            1=-0-2
-            12111
-            2=0=
-            21
-            2=01
-            111
-            20012
-            112
-            1=-1=
-            1-12
-            12
-            1=
-            122""".split("\n"));
-        var input2 = Files.readAllLines(Path.of("input25.txt"));
-        input = input2;
+        var numbers = parse(Input.map(Path.of("input25.txt")));
 
-        var sum = input.stream()
-            .mapToLong(Day25::decodeSnafu)
-            .sum();
+        System.out.println(part1(numbers));
+        System.out.println(part2(numbers));
+    }
+
+    static long[] parse(Input input) {
+        var numbers = LongStream.builder();
+        while (input.hasNext()) {
+            numbers.add(decodeSnafu(input));
+        }
+        return numbers.build().toArray();
+    }
+
+    static long part1(long[] numbers) {
+        return LongStream.of(numbers).sum();
+    }
 
-        System.out.println(sum);
-        System.out.println(encodeToSnafu(sum));
+    static String part2(long[] numbers) {
+        return encodeToSnafu(part1(numbers));
     }
 
-    private static long decodeSnafu(String snafu) {
+    private static long decodeSnafu(Input snafu) {
         var result = 0L;
-        for (int i = 0; i < snafu.length(); i++) {
-            var digitValue = Math.pow(5L, snafu.length() - 1 - i);
-            result += digitValue * switch (snafu.charAt(i)) {
+        while (!snafu.isLineEnd()) {
+            result = result * 5 + switch (snafu.next()) {
                 case '0' -> 0;
                 case '1' -> 1;
                 case '2' -> 2;
@@ -43,6 +38,7 @@ public class Day25 {
                 default -> throw new IllegalArgumentException("Not valid snafu");
             };
         }
+        snafu.skipLine();
         return result;
     }
 
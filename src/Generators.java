@@ -0,0 +1,850 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes synthetic puzzle inputs of arbitrary size, so solvers can be measured well beyond the shipped inputs.
+ * The same day, size and seed always produce the same file. Output is streamed to the writer, only the days whose
+ * puzzle needs global consistency (crate stacks, monkey troop, valve graph) keep state proportional to the size.
+ * <p>
+ * Usage: {@code java Generators <day> <size> [seed] [output]}, output defaults to standard out.
+ * <p>
+ * The meaning of size differs per day, it is documented on each generator. {@link #baseSize(int)} gives the size
+ * that roughly matches the shipped input.
+ */
+public final class Generators {
+    private static final Map<Integer, Generator> GENERATORS = Map.ofEntries(
+        Map.entry(1, Generators::day01), Map.entry(2, Generators::day02), Map.entry(3, Generators::day03),
+        Map.entry(4, Generators::day04), Map.entry(5, Generators::day05), Map.entry(6, Generators::day06),
+        Map.entry(7, Generators::day07), Map.entry(8, Generators::day08), Map.entry(9, Generators::day09),
+        Map.entry(10, Generators::day10), Map.entry(11, Generators::day11), Map.entry(12, Generators::day12),
+        Map.entry(13, Generators::day13), Map.entry(14, Generators::day14), Map.entry(15, Generators::day15),
+        Map.entry(16, Generators::day16), Map.entry(17, Generators::day17), Map.entry(18, Generators::day18),
+        Map.entry(19, Generators::day19), Map.entry(20, Generators::day20), Map.entry(21, Generators::day21),
+        Map.entry(22, Generators::day22), Map.entry(23, Generators::day23), Map.entry(24, Generators::day24),
+        Map.entry(25, Generators::day25)
+    );
+    private static final int[] BASE_SIZES = {
+        241, 2500, 300, 1000, 500, 4096, 287, 99, 2000, 146, 36, 41, 150,
+        148, 32, 58, 10091, 2090, 30, 5000, 2569, 50, 73, 3000, 116
+    };
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19};
+    private static final String ITEMS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private Generators() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java Generators <day> <size> [seed] [output]");
+            System.exit(1);
+        }
+        var day = Integer.parseInt(args[0]);
+        var size = Integer.parseInt(args[1]);
+        var seed = args.length > 2 ? Long.parseLong(args[2]) : 2022;
+        if (args.length > 3) {
+            generate(day, size, seed, Path.of(args[3]));
+        } else {
+            var out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+            generate(day, size, seed, out);
+            out.flush();
+        }
+    }
+
+    static void generate(int day, int size, long seed, Path output) throws IOException {
+        try (var out = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            generate(day, size, seed, out);
+        }
+    }
+
+    static void generate(int day, int size, long seed, Writer out) throws IOException {
+        var generator = GENERATORS.get(day);
+        if (generator == null) throw new IllegalArgumentException("No generator for day " + day);
+
+        generator.write(new Random(seed), size, out);
+    }
+
+    static int baseSize(int day) {
+        return BASE_SIZES[day - 1];
+    }
+
+    /**
+     * Size: number of elves.
+     */
+    private static void day01(Random random, int size, Writer out) throws IOException {
+        for (int elf = 0; elf < size; elf++) {
+            if (elf > 0) out.write('\n');
+            var items = 1 + random.nextInt(14);
+            for (int i = 0; i < items; i++) {
+                writeLine(out, 1000 + random.nextInt(14000));
+            }
+        }
+    }
+
+    /**
+     * Size: number of rounds.
+     */
+    private static void day02(Random random, int size, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.write('A' + random.nextInt(3));
+            out.write(' ');
+            out.write('X' + random.nextInt(3));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Size: number of rucksacks, rounded down to whole groups of three. Halves of a rucksack share exactly one item
+     * type and every group shares exactly one badge.
+     */
+    private static void day03(Random random, int size, Writer out) throws IOException {
+        for (int group = 0; group < Math.max(1, size / 3); group++) {
+            var letters = shuffledItems(random);
+            var badge = letters.remove(letters.size() - 1);
+            for (int elf = 0; elf < 3; elf++) {
+                // Every other item type belongs to one elf only, so the badge is the only type all three share
+                var own = new ArrayList<Character>();
+                for (int i = elf; i < letters.size(); i += 3) {
+                    own.add(letters.get(i));
+                }
+                own.add(badge);
+                writeRucksack(random, own, badge, out);
+            }
+        }
+    }
+
+    private static void writeRucksack(Random random, List<Character> items, char badge, Writer out) throws IOException {
+        Collections.shuffle(items, random);
+        var shared = items.get(0);
+        var half = items.size() / 2;
+        var first = items.subList(1, half);
+        var second = items.subList(half, items.size());
+        var length = 4 + random.nextInt(13);
+
+        var left = fill(random, first, length);
+        var right = fill(random, second, length);
+        if (shared != badge) {
+            var target = first.contains(badge) ? left : right;
+            target[0] = badge;
+        }
+        left[1] = shared;
+        right[1] = shared;
+        shuffle(random, left);
+        shuffle(random, right);
+        out.write(left);
+        out.write(right);
+        out.write('\n');
+    }
+
+    private static char[] fill(Random random, List<Character> items, int length) {
+        var result = new char[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = items.get(random.nextInt(items.size()));
+        }
+        return result;
+    }
+
+    /**
+     * Size: number of pairs.
+     */
+    private static void day04(Random random, int size, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            var a = 1 + random.nextInt(99);
+            var b = a + random.nextInt(100 - a);
+            var c = 1 + random.nextInt(99);
+            var d = c + random.nextInt(100 - c);
+            out.write(a + "-" + b + "," + c + "-" + d + "\n");
+        }
+    }
+
+    /**
+     * Size: number of instructions. Stacks grow with the size, moves never empty a stack.
+     */
+    private static void day05(Random random, int size, Writer out) throws IOException {
+        var stacks = 9;
+        var maxHeight = 8 + size / 50;
+        var heights = new int[stacks];
+        for (int i = 0; i < stacks; i++) {
+            heights[i] = 2 + random.nextInt(maxHeight - 1);
+        }
+        var tallest = Arrays.stream(heights).max().orElseThrow();
+        for (int level = tallest; level > 0; level--) {
+            var line = new StringBuilder();
+            for (int i = 0; i < stacks; i++) {
+                if (i > 0) line.append(' ');
+                line.append(heights[i] >= level ? "[" + (char) ('A' + random.nextInt(26)) + "]" : "   ");
+            }
+            out.write(line.append('\n').toString());
+        }
+        for (int i = 0; i < stacks; i++) {
+            out.write(i == 0 ? " " : "   ");
+            out.write('1' + i);
+        }
+        out.write(" \n\n");
+
+        for (int i = 0; i < size; i++) {
+            int from;
+            do {
+                from = random.nextInt(stacks);
+            } while (heights[from] < 2);
+            var to = (from + 1 + random.nextInt(stacks - 1)) % stacks;
+            var count = 1 + random.nextInt(Math.min(heights[from] - 1, 30));
+            heights[from] -= count;
+            heights[to] += count;
+            out.write("move " + count + " from " + (from + 1) + " to " + (to + 1) + "\n");
+        }
+    }
+
+    /**
+     * Size: length of the datastream. Both markers only appear at the very end.
+     */
+    private static void day06(Random random, int size, Writer out) throws IOException {
+        var letters = shuffledItems(random);
+        letters.removeIf(Character::isUpperCase);
+        for (int i = 0; i < size - 14; i++) {
+            out.write(letters.get(random.nextInt(3)));
+        }
+        for (int i = 0; i < 14; i++) {
+            out.write(letters.get(i));
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Size: number of files. File sizes are chosen so the whole tree takes roughly 50 000 000 of the 70 000 000
+     * disk, leaving something to delete in part 2.
+     */
+    private static void day07(Random random, int size, Writer out) throws IOException {
+        out.write("$ cd /\n");
+        writeDirectory(random, size, Math.max(2, 100_000_000 / size), out);
+    }
+
+    private static void writeDirectory(Random random, int files, int maxFileSize, Writer out) throws IOException {
+        out.write("$ ls\n");
+        var here = Math.min(files, 1 + random.nextInt(6));
+        var remaining = files - here;
+        var subdirectories = remaining == 0 ? 0 : 1 + random.nextInt(Math.min(remaining, 4));
+
+        var names = new HashSet<String>();
+        var directories = new String[subdirectories];
+        for (int i = 0; i < subdirectories; i++) {
+            directories[i] = uniqueWord(random, names);
+            out.write("dir " + directories[i] + "\n");
+        }
+        for (int i = 0; i < here; i++) {
+            var name = uniqueWord(random, names) + (random.nextBoolean() ? "." + word(random, 3) : "");
+            out.write((1 + random.nextInt(maxFileSize)) + " " + name + "\n");
+        }
+
+        var cuts = new int[subdirectories + 1];
+        for (int i = 1; i < subdirectories; i++) {
+            cuts[i] = random.nextInt(remaining + 1);
+        }
+        cuts[subdirectories] = remaining;
+        Arrays.sort(cuts);
+        for (int i = 0; i < subdirectories; i++) {
+            out.write("$ cd " + directories[i] + "\n");
+            writeDirectory(random, cuts[i + 1] - cuts[i], maxFileSize, out);
+            out.write("$ cd ..\n");
+        }
+    }
+
+    /**
+     * Size: width and height of the forest.
+     */
+    private static void day08(Random random, int size, Writer out) throws IOException {
+        writeGrid(size, size, () -> (char) ('0' + random.nextInt(10)), out);
+    }
+
+    /**
+     * Size: number of moves.
+     */
+    private static void day09(Random random, int size, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.write("UDLR".charAt(random.nextInt(4)));
+            out.write(" " + (1 + random.nextInt(19)) + "\n");
+        }
+    }
+
+    /**
+     * Size: number of instructions. The register stays within the visible columns.
+     */
+    private static void day10(Random random, int size, Writer out) throws IOException {
+        var x = 1;
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(10) < 3) {
+                out.write("noop\n");
+            } else {
+                var target = -1 + random.nextInt(42);
+                out.write("addx " + (target - x) + "\n");
+                x = target;
+            }
+        }
+    }
+
+    /**
+     * Size: number of items spread over eight monkeys. Divisors are distinct small primes. Like in the puzzle inputs,
+     * part 1 worry levels must fit in a long, so troops are drawn again until they do.
+     */
+    private static void day11(Random random, int size, Writer out) throws IOException {
+        while (true) {
+            var troop = new StringWriter();
+            writeTroop(random, size, troop);
+            if (part1Fits(troop.toString())) {
+                out.write(troop.toString());
+                return;
+            }
+        }
+    }
+
+    private static boolean part1Fits(String troop) {
+        try {
+            Day11.part1(Day11.parse(Input.of(troop)));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static void writeTroop(Random random, int size, Writer out) throws IOException {
+        var monkeys = PRIMES.length;
+        var divisors = PRIMES.clone();
+        shuffle(random, divisors);
+        var counts = new int[monkeys];
+        for (int i = 0; i < size; i++) {
+            counts[random.nextInt(monkeys)]++;
+        }
+        var squaring = random.nextInt(monkeys);
+
+        for (int monkey = 0; monkey < monkeys; monkey++) {
+            if (monkey > 0) out.write('\n');
+            out.write("Monkey " + monkey + ":\n");
+            out.write("  Starting items:");
+            for (int i = 0; i < counts[monkey]; i++) {
+                out.write((i == 0 ? " " : ", ") + (50 + random.nextInt(50)));
+            }
+            out.write('\n');
+
+            String operation;
+            if (monkey == squaring) {
+                operation = "old * old";
+            } else if (random.nextInt(3) == 0) {
+                operation = "old * " + (2 + random.nextInt(18));
+            } else {
+                operation = "old + " + (1 + random.nextInt(8));
+            }
+            out.write("  Operation: new = " + operation + "\n");
+            out.write("  Test: divisible by " + divisors[monkey] + "\n");
+
+            var trueTarget = (monkey + 1 + random.nextInt(monkeys - 1)) % monkeys;
+            int falseTarget;
+            do {
+                falseTarget = (monkey + 1 + random.nextInt(monkeys - 1)) % monkeys;
+            } while (falseTarget == trueTarget);
+            out.write("    If true: throw to monkey " + trueTarget + "\n");
+            out.write("    If false: throw to monkey " + falseTarget + "\n");
+        }
+    }
+
+    /**
+     * Size: number of rows, the map is two and a half times as wide. Elevation rises towards the summit by at most
+     * one per step, with a few dips scattered around.
+     */
+    private static void day12(Random random, int size, Writer out) throws IOException {
+        var height = Math.max(3, size);
+        var width = height * 5 / 2;
+        var endX = width * 3 / 4;
+        var endY = height / 2;
+        var maxDistance = endX + endY;
+        var step = Math.max(1, maxDistance / 30);
+
+        for (int y = 0; y < height; y++) {
+            var row = new char[width];
+            for (int x = 0; x < width; x++) {
+                var distance = Math.abs(x - endX) + Math.abs(y - endY);
+                var elevation = Math.max(0, 25 - distance / step);
+                if (elevation > 0 && distance > 0 && random.nextInt(20) == 0) elevation--;
+                row[x] = (char) ('a' + elevation);
+            }
+            if (y == endY) {
+                row[0] = 'S';
+                row[endX] = 'E';
+            }
+            out.write(row);
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Size: number of packet pairs.
+     */
+    private static void day13(Random random, int size, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) out.write('\n');
+            out.write(packet(random));
+            out.write('\n');
+            out.write(packet(random));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Random packet that does not compare equal to a divider packet, so the dividers have a well defined position.
+     */
+    private static String packet(Random random) {
+        while (true) {
+            var packet = new StringBuilder();
+            writePacket(random, 0, packet);
+            // Without commas every list holds at most one element, so only the innermost integer is compared
+            var flat = packet.toString().replace("[", "").replace("]", "");
+            if (!flat.equals("2") && !flat.equals("6")) return packet.toString();
+        }
+    }
+
+    private static void writePacket(Random random, int depth, StringBuilder out) {
+        out.append('[');
+        var count = random.nextInt(6);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.append(',');
+            if (depth < 4 && random.nextInt(10) < 3) {
+                writePacket(random, depth + 1, out);
+            } else {
+                out.append(random.nextInt(11));
+            }
+        }
+        out.append(']');
+    }
+
+    /**
+     * Size: number of rock paths. The scanned area grows with the size, so the density of rock stays the same.
+     */
+    private static void day14(Random random, int size, Writer out) throws IOException {
+        var extent = (int) (14 * Math.sqrt(size));
+        for (int i = 0; i < size; i++) {
+            var x = 500 - extent + random.nextInt(2 * extent + 1);
+            var y = 13 + random.nextInt(extent);
+            var line = new StringBuilder().append(x).append(',').append(y);
+            var segments = 1 + random.nextInt(6);
+            for (int segment = 0; segment < segments; segment++) {
+                var length = 1 + random.nextInt(8);
+                if (segment % 2 == 0) {
+                    x += random.nextBoolean() ? length : -length;
+                } else {
+                    y = Math.max(13, y + (random.nextBoolean() ? length : -length));
+                }
+                line.append(" -> ").append(x).append(',').append(y);
+            }
+            out.write(line.append('\n').toString());
+        }
+    }
+
+    /**
+     * Size: number of sensors, at least four. Every sensor reaches just short of one hidden position, which is where
+     * the distress beacon is expected.
+     * <p>
+     * Four of them make sure it is the only uncovered position. With {@code u = x + y} and {@code v = x - y} a
+     * sensor range is a square, and four squares larger than the search area cover everything with a smaller u, with
+     * a larger u, and in the column of the hidden u everything with a smaller or a larger v.
+     */
+    private static void day15(Random random, int size, Writer out) throws IOException {
+        var max = 4_000_000;
+        var hiddenX = random.nextInt(max + 1);
+        var hiddenY = random.nextInt(max + 1);
+        var u = hiddenX + hiddenY;
+        var v = hiddenX - hiddenY;
+        // Odd, so that every center has an even u + v and lies on a whole position
+        var range = 2 * max + 1;
+        writeSensor(u - 1 - range, v, range, out);
+        writeSensor(u + 1 + range, v, range, out);
+        writeSensor(u, v - 1 - range, range, out);
+        writeSensor(u, v + 1 + range, range, out);
+
+        for (int i = 4; i < size; i++) {
+            var x = random.nextInt(max + 1);
+            var y = random.nextInt(max + 1);
+            if (x == hiddenX && y == hiddenY) {
+                i--;
+                continue;
+            }
+            var reach = Math.abs(x - hiddenX) + Math.abs(y - hiddenY) - 1;
+            var dx = random.nextInt(reach + 1);
+            var beaconX = x + (random.nextBoolean() ? dx : -dx);
+            var beaconY = y + (random.nextBoolean() ? reach - dx : dx - reach);
+            writeSensor(x, y, beaconX, beaconY, out);
+        }
+    }
+
+    /**
+     * Writes a sensor centered at {@code (u, v)} in rotated coordinates, with its beacon {@code range} to the right.
+     */
+    private static void writeSensor(int u, int v, int range, Writer out) throws IOException {
+        var x = (u + v) / 2;
+        var y = (u - v) / 2;
+        writeSensor(x, y, x + range, y, out);
+    }
+
+    private static void writeSensor(int x, int y, int beaconX, int beaconY, Writer out) throws IOException {
+        out.write("Sensor at x=" + x + ", y=" + y + ": closest beacon is at x=" + beaconX + ", y=" + beaconY + "\n");
+    }
+
+    /**
+     * Size: number of valves, at most 676 as names are two letters. At most 15 valves have a flow rate, as in the
+     * puzzle, which keeps part 2 tractable.
+     */
+    private static void day16(Random random, int size, Writer out) throws IOException {
+        var count = Math.max(2, Math.min(size, 26 * 26));
+        var names = new ArrayList<String>();
+        for (int i = 0; i < 26 * 26; i++) {
+            var name = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            if (!name.equals("AA")) names.add(name);
+        }
+        Collections.shuffle(names, random);
+        names = new ArrayList<>(names.subList(0, count - 1));
+        names.add(0, "AA");
+
+        var neighbours = new ArrayList<List<Integer>>();
+        for (int i = 0; i < count; i++) {
+            neighbours.add(new ArrayList<>());
+        }
+        for (int i = 1; i < count; i++) {
+            connect(neighbours, i, random.nextInt(i));
+        }
+        for (int i = 0; i < count / 4; i++) {
+            var a = random.nextInt(count);
+            var b = random.nextInt(count);
+            if (a != b && !neighbours.get(a).contains(b)) connect(neighbours, a, b);
+        }
+
+        var rates = new int[count];
+        var working = Math.min(15, count - 1);
+        for (int i = 0; i < working; i++) {
+            rates[1 + i] = 3 + random.nextInt(23);
+        }
+        shuffle(random, rates, 1);
+
+        var order = new int[count];
+        Arrays.setAll(order, i -> i);
+        shuffle(random, order, 0);
+        for (var valve : order) {
+            var targets = neighbours.get(valve)
+                .stream()
+                .map(names::get)
+                .toList();
+            out.write("Valve " + names.get(valve) + " has flow rate=" + rates[valve] + "; ");
+            out.write(targets.size() == 1 ? "tunnel leads to valve " : "tunnels lead to valves ");
+            out.write(String.join(", ", targets) + "\n");
+        }
+    }
+
+    private static void connect(List<List<Integer>> neighbours, int a, int b) {
+        neighbours.get(a).add(b);
+        neighbours.get(b).add(a);
+    }
+
+    /**
+     * Size: length of the jet pattern.
+     */
+    private static void day17(Random random, int size, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.write(random.nextBoolean() ? '<' : '>');
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Size: approximate number of cubes, packed at the density of the puzzle.
+     */
+    private static void day18(Random random, int size, Writer out) throws IOException {
+        var side = Math.max(2, (int) Math.cbrt(size / 0.26));
+        var probability = size / Math.pow(side, 3);
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                for (int z = 0; z < side; z++) {
+                    if (random.nextDouble() < probability) out.write(x + "," + y + "," + z + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Size: number of blueprints.
+     */
+    private static void day19(Random random, int size, Writer out) throws IOException {
+        for (int i = 1; i <= size; i++) {
+            out.write("Blueprint " + i + ": ");
+            out.write("Each ore robot costs " + (2 + random.nextInt(3)) + " ore. ");
+            out.write("Each clay robot costs " + (2 + random.nextInt(3)) + " ore. ");
+            out.write("Each obsidian robot costs " + (2 + random.nextInt(3)) + " ore and " + (5 + random.nextInt(16))
+                + " clay. ");
+            out.write("Each geode robot costs " + (2 + random.nextInt(3)) + " ore and " + (7 + random.nextInt(14))
+                + " obsidian.\n");
+        }
+    }
+
+    /**
+     * Size: number of values, exactly one of them zero.
+     */
+    private static void day20(Random random, int size, Writer out) throws IOException {
+        var zero = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            var value = 0;
+            while (i != zero && value == 0) {
+                value = random.nextInt(20001) - 10000;
+            }
+            writeLine(out, value);
+        }
+    }
+
+    /**
+     * Size: number of monkeys. The expression tree is random, divisions are always exact. On the path from root to
+     * humn only operations that can be reversed exactly are used.
+     */
+    private static void day21(Random random, int size, Writer out) throws IOException {
+        var names = new NameSequence();
+        var count = Math.max(5, size | 1);
+        var leftBudget = randomOdd(random, count - 1);
+
+        var left = leftBudget == 1 ? "humn" : names.next();
+        var right = names.next();
+        var leftValue = 1 + random.nextInt(1_000_000);
+        var rightValue = 1 + random.nextInt(1_000_000);
+        out.write("root: " + left + " + " + right + "\n");
+
+        var pending = new ArrayDeque<Monkey>();
+        pending.push(new Monkey(right, rightValue, count - 1 - leftBudget, false));
+        pending.push(new Monkey(left, leftValue, leftBudget, true));
+        while (!pending.isEmpty()) {
+            var monkey = pending.pop();
+            if (monkey.budget == 1) {
+                out.write(monkey.name + ": " + monkey.value + "\n");
+                continue;
+            }
+
+            var value = monkey.value;
+            var budget = randomOdd(random, monkey.budget - 1);
+            var humanLeft = random.nextBoolean();
+            long a;
+            long b;
+            char operator;
+            var choice = random.nextInt(4);
+            var divisor = 2 + random.nextInt(8);
+            if (choice == 2 && !monkey.human && value % divisor == 0) {
+                operator = '*';
+                a = divisor;
+                b = value / divisor;
+            } else if (choice == 3 && Math.abs(value) < 1_000_000_000 && (!monkey.human || humanLeft)) {
+                operator = '/';
+                a = value * divisor;
+                b = divisor;
+            } else if (choice == 1) {
+                operator = '-';
+                b = random.nextInt(1000);
+                a = value + b;
+            } else {
+                operator = '+';
+                a = random.nextInt(1000);
+                b = value - a;
+            }
+
+            var rightBudget = monkey.budget - 1 - budget;
+            var leftName = monkey.human && humanLeft && budget == 1 ? "humn" : names.next();
+            var rightName = monkey.human && !humanLeft && rightBudget == 1 ? "humn" : names.next();
+            out.write(monkey.name + ": " + leftName + " " + operator + " " + rightName + "\n");
+            pending.push(new Monkey(rightName, b, rightBudget, monkey.human && !humanLeft));
+            pending.push(new Monkey(leftName, a, budget, monkey.human && humanLeft));
+        }
+    }
+
+    private static int randomOdd(Random random, int total) {
+        // Splits an even number of monkeys into two odd sized subtrees
+        return 1 + 2 * random.nextInt(total / 2);
+    }
+
+    /**
+     * Size: edge length of a cube face, laid out as in the puzzle input.
+     */
+    private static void day22(Random random, int size, Writer out) throws IOException {
+        var face = Math.max(2, size);
+        var padding = " ".repeat(face);
+        for (int y = 0; y < 4 * face; y++) {
+            var offset = y < 2 * face ? face : 0;
+            var width = y < face || (y >= 2 * face && y < 3 * face) ? 2 * face : face;
+            var row = new char[width];
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextInt(20) == 0 ? '#' : '.';
+            }
+            if (y == 0) row[0] = '.';
+            if (offset > 0) out.write(padding);
+            out.write(row);
+            out.write('\n');
+        }
+        out.write('\n');
+
+        var commands = 40 * face;
+        for (int i = 0; i < commands; i++) {
+            out.write(Integer.toString(1 + random.nextInt(50)));
+            out.write(random.nextBoolean() ? 'L' : 'R');
+        }
+        out.write(Integer.toString(1 + random.nextInt(50)));
+        out.write('\n');
+    }
+
+    /**
+     * Size: width and height of the initial scan.
+     */
+    private static void day23(Random random, int size, Writer out) throws IOException {
+        writeGrid(size, size, () -> random.nextBoolean() ? '#' : '.', out);
+    }
+
+    /**
+     * Size: approximate area inside the walls. The valley is five times as wide as high, so the blizzard period
+     * equals the width. Entrance and exit columns have no vertical blizzards.
+     */
+    private static void day24(Random random, int size, Writer out) throws IOException {
+        var height = Math.max(2, (int) Math.round(Math.sqrt(size / 5.0)));
+        var width = 5 * height;
+        out.write("#." + "#".repeat(width) + "\n");
+        for (int y = 0; y < height; y++) {
+            var row = new char[width + 2];
+            row[0] = '#';
+            row[width + 1] = '#';
+            for (int x = 1; x <= width; x++) {
+                var vertical = x != 1 && x != width;
+                if (random.nextInt(100) < 65) {
+                    row[x] = '.';
+                } else {
+                    row[x] = vertical ? "<>^v".charAt(random.nextInt(4)) : "<>".charAt(random.nextInt(2));
+                }
+            }
+            out.write(row);
+            out.write('\n');
+        }
+        out.write("#".repeat(width) + ".#\n");
+    }
+
+    /**
+     * Size: number of SNAFU numbers. Values are small enough that their sum fits a long for any sensible size.
+     */
+    private static void day25(Random random, int size, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            var value = 1 + (long) (random.nextDouble() * 3_814_697_265_625L);
+            var digits = new StringBuilder();
+            while (value != 0) {
+                var digit = (int) (value % 5);
+                digits.append("012=-".charAt(digit));
+                value = value / 5 + (digit > 2 ? 1 : 0);
+            }
+            out.write(digits.reverse().append('\n').toString());
+        }
+    }
+
+    private static void writeGrid(int width, int height, CharSupplier cells, Writer out) throws IOException {
+        var row = new char[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = cells.next();
+            }
+            out.write(row);
+            out.write('\n');
+        }
+    }
+
+    private static void writeLine(Writer out, long value) throws IOException {
+        out.write(Long.toString(value));
+        out.write('\n');
+    }
+
+    private static List<Character> shuffledItems(Random random) {
+        var letters = new ArrayList<Character>();
+        for (var letter : ITEMS.toCharArray()) {
+            letters.add(letter);
+        }
+        Collections.shuffle(letters, random);
+        return letters;
+    }
+
+    private static String word(Random random, int maxLength) {
+        var length = 1 + random.nextInt(maxLength);
+        var builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    private static String uniqueWord(Random random, HashSet<String> used) {
+        String word;
+        do {
+            word = word(random, 8);
+        } while (!used.add(word));
+        return word;
+    }
+
+    private static void shuffle(Random random, char[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static void shuffle(Random random, int[] values) {
+        shuffle(random, values, 0);
+    }
+
+    private static void shuffle(Random random, int[] values, int from) {
+        for (int i = values.length - 1; i > from; i--) {
+            var j = from + random.nextInt(i - from + 1);
+            var tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    @FunctionalInterface
+    interface Generator {
+        void write(Random random, int size, Writer out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface CharSupplier {
+        char next();
+    }
+
+    private record Monkey(String name, long value, int budget, boolean human) {
+    }
+
+    /**
+     * Unique lowercase monkey names of at least four letters, never one of the names the puzzle gives a meaning.
+     */
+    private static class NameSequence {
+        private int next;
+
+        String next() {
+            while (true) {
+                var builder = new StringBuilder();
+                var value = next++;
+                for (int i = 0; i < 4 || value > 0; i++) {
+                    builder.append((char) ('a' + value % 26));
+                    value /= 26;
+                }
+                var name = builder.toString();
+                if (!name.equals("root") && !name.equals("humn")) return name;
+            }
+        }
+    }
+}
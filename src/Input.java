@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor over the raw bytes of a puzzle input, usually a memory mapped file. Numbers, separators and lines are
+ * consumed directly from the bytes, so parsing does not create intermediate strings or arrays.
+ * <p>
+ * A single mapping is limited to 2 GB, larger files have to be mapped in several regions.
+ */
+public final class Input {
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private Input(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    public static Input map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, 0, channel.size());
+        }
+    }
+
+    public static Input map(FileChannel channel, long offset, long length) throws IOException {
+        return new Input(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    public static Input of(byte[] bytes) {
+        return new Input(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return a cursor over the remaining bytes of the buffer, without copying them
+     */
+    public static Input of(ByteBuffer buffer) {
+        return new Input(buffer.slice());
+    }
+
+    public static Input of(String text) {
+        return of(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return a new cursor over the same bytes, positioned at the start
+     */
+    public Input duplicate() {
+        return new Input(buffer);
+    }
+
+    /**
+     * @return a new cursor over bytes [from, to) of this input, positioned at its start
+     */
+    public Input slice(int from, int to) {
+        return new Input(buffer.slice(from, to - from));
+    }
+
+    /**
+     * Feeds all bytes of the input to the digest, regardless of the cursor position.
+     *
+     * @return the completed digest
+     */
+    public byte[] digest(MessageDigest digest) {
+        digest.update(buffer.slice(0, limit));
+        return digest.digest();
+    }
+
+    public int length() {
+        return limit;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public void position(int position) {
+        this.position = position;
+    }
+
+    public boolean hasNext() {
+        return position < limit;
+    }
+
+    public byte get(int index) {
+        return buffer.get(index);
+    }
+
+    /**
+     * @return the 8 bytes starting at {@code index} as a big endian long, the first byte in the highest bits
+     */
+    public long getLong(int index) {
+        return buffer.getLong(index);
+    }
+
+    public byte peek() {
+        return buffer.get(position);
+    }
+
+    public byte next() {
+        return buffer.get(position++);
+    }
+
+    public void skip(int count) {
+        position = Math.min(position + count, limit);
+    }
+
+    /**
+     * Moves the cursor just past the next occurrence of {@code value}, or to the end if there is none.
+     */
+    public void skipUntil(byte value) {
+        var index = indexOf(value, position);
+        position = index == limit ? limit : index + 1;
+    }
+
+    public void skipLine() {
+        skipUntil((byte) '\n');
+    }
+
+    public void skipWhitespace() {
+        while (position < limit && isWhitespace(buffer.get(position))) {
+            position++;
+        }
+    }
+
+    public int indexOf(byte value, int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return limit;
+    }
+
+    /**
+     * @return index of the line feed ending the current line, or the input length for the last line
+     */
+    public int lineEnd() {
+        return indexOf((byte) '\n', position);
+    }
+
+    public boolean isLineEnd() {
+        return position >= limit || buffer.get(position) == '\n';
+    }
+
+    public boolean startsWith(String prefix) {
+        if (position + prefix.length() > limit) return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(position + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public int nextInt() {
+        return Math.toIntExact(nextLong());
+    }
+
+    /**
+     * Skips to the next number and parses it. A minus sign directly after a digit is treated as a separator, so
+     * ranges such as {@code 2-4} read as two positive numbers.
+     */
+    public long nextLong() {
+        skipToNumber();
+
+        var negative = buffer.get(position) == '-';
+        if (negative) position++;
+
+        var value = 0L;
+        while (position < limit) {
+            var digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) break;
+
+            value = value * 10 + digit;
+            position++;
+        }
+        return negative ? -value : value;
+    }
+
+    public String nextString(int length) {
+        var bytes = new byte[length];
+        buffer.get(position, bytes);
+        position += length;
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the rest of the current line, the cursor is moved to the start of the next one
+     */
+    public String nextLine() {
+        var line = nextString(lineEnd() - position);
+        skipLine();
+        return line;
+    }
+
+    /**
+     * @return characters up to the next space or line end
+     */
+    public String nextWord() {
+        var end = position;
+        while (end < limit && !isWhitespace(buffer.get(end))) {
+            end++;
+        }
+        return nextString(end - position);
+    }
+
+    private void skipToNumber() {
+        while (position < limit) {
+            var value = buffer.get(position);
+            if (isDigit(value)) return;
+            if (value == '-' && position + 1 < limit && isDigit(buffer.get(position + 1)) &&
+                (position == 0 || !isDigit(buffer.get(position - 1)))) {
+                return;
+            }
+            position++;
+        }
+        throw new NoSuchElementException("No number left in input");
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+}
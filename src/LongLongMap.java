@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to long values with linear probing, the map counterpart of
+ * {@link LongSet}.
+ */
+public class LongLongMap {
+    private static final long FREE = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean hasFreeKey;
+    private long freeValue;
+
+    public LongLongMap() {
+        this(16);
+    }
+
+    public LongLongMap(int expectedSize) {
+        allocate(LongSet.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE) return hasFreeKey;
+
+        return find(key) >= 0;
+    }
+
+    public long get(long key, long defaultValue) {
+        if (key == FREE) return hasFreeKey ? freeValue : defaultValue;
+
+        var slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public void put(long key, long value) {
+        if (key == FREE) {
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeValue = value;
+            return;
+        }
+
+        var slot = insertionSlot(key);
+        values[slot] = value;
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            grow();
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, a missing key starts at zero.
+     *
+     * @return the new value
+     */
+    public long addTo(long key, long delta) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                size++;
+                freeValue = 0;
+            }
+            hasFreeKey = true;
+            return freeValue += delta;
+        }
+
+        var slot = insertionSlot(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            values[slot] = delta;
+            grow();
+            return delta;
+        }
+        return values[slot] += delta;
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE) {
+            if (!hasFreeKey) return false;
+
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+
+        var slot = find(key);
+        if (slot < 0) return false;
+
+        shiftKeys(slot);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasFreeKey) consumer.accept(FREE, freeValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    public LongSet keySet() {
+        var result = new LongSet(size);
+        forEach((key, value) -> result.add(key));
+        return result;
+    }
+
+    private int find(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            var current = keys[slot];
+            if (current == key) return slot;
+            if (current == FREE) return -1;
+        }
+    }
+
+    private int insertionSlot(long key) {
+        var slot = slot(key);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void shiftKeys(int slot) {
+        while (true) {
+            var last = slot;
+            slot = (slot + 1) & mask;
+            long current;
+            while (true) {
+                current = keys[slot];
+                if (current == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                var ideal = slot(current);
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot) break;
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+
+            var slot = slot(oldKeys[i]);
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
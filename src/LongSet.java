@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Open addressing hash set of primitive longs with linear probing. Used for coordinates packed by {@link Points},
+ * so that large sets of points cost 8 bytes per slot instead of a boxed object and a hash node per entry.
+ */
+public class LongSet {
+    private static final long FREE = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean hasFreeKey;
+
+    public LongSet() {
+        this(16);
+    }
+
+    public LongSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    protected LongSet(LongSet other) {
+        keys = other.keys.clone();
+        mask = other.mask;
+        shift = other.shift;
+        size = other.size;
+        hasFreeKey = other.hasFreeKey;
+    }
+
+    public LongSet copy() {
+        return new LongSet(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE) return hasFreeKey;
+
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            var current = keys[slot];
+            if (current == key) return true;
+            if (current == FREE) return false;
+        }
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public boolean add(long key) {
+        if (key == FREE) {
+            if (hasFreeKey) return false;
+
+            hasFreeKey = true;
+            size++;
+            return true;
+        }
+
+        var slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        if (key == FREE) {
+            if (!hasFreeKey) return false;
+
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+
+        for (int slot = slot(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    public void addAll(LongSet other) {
+        other.forEach(this::add);
+    }
+
+    public void removeAll(LongSet other) {
+        other.forEach(this::remove);
+    }
+
+    public void retainAll(LongSet other) {
+        if (hasFreeKey && !other.contains(FREE)) {
+            hasFreeKey = false;
+            size--;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            // Shifting may move an unvisited key into this slot, so check the same slot again
+            while (keys[slot] != FREE && !other.contains(keys[slot])) {
+                shiftKeys(slot);
+                size--;
+            }
+        }
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (hasFreeKey) consumer.accept(FREE);
+        for (var key : keys) {
+            if (key != FREE) consumer.accept(key);
+        }
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int slot = hasFreeKey ? -1 : nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < keys.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                var key = slot == -1 ? FREE : keys[slot];
+                slot = nextSlot(slot + 1);
+                return key;
+            }
+        };
+    }
+
+    public LongStream stream() {
+        var spliterator = Spliterators.spliterator(iterator(), size, Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.longStream(spliterator, false);
+    }
+
+    public long[] toArray() {
+        var result = new long[size];
+        var index = 0;
+        for (var iterator = iterator(); iterator.hasNext(); ) {
+            result[index++] = iterator.nextLong();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof LongSet other) || other.size != size) return false;
+        if (hasFreeKey && !other.hasFreeKey) return false;
+
+        for (var key : keys) {
+            if (key != FREE && !other.contains(key)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        var hash = hasFreeKey ? Long.hashCode(FREE) : 0;
+        for (var key : keys) {
+            if (key != FREE) hash += Long.hashCode(key);
+        }
+        return hash;
+    }
+
+    private int nextSlot(int from) {
+        var slot = from;
+        while (slot < keys.length && keys[slot] == FREE) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void shiftKeys(int slot) {
+        while (true) {
+            var last = slot;
+            slot = (slot + 1) & mask;
+            long current;
+            while (true) {
+                current = keys[slot];
+                if (current == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                var ideal = slot(current);
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot) break;
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        var old = keys;
+        allocate(capacity);
+        for (var key : old) {
+            if (key == FREE) continue;
+
+            var slot = slot(key);
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    static int capacityFor(int expectedSize) {
+        var capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        return Math.max(capacity, 16);
+    }
+}
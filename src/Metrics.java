@@ -0,0 +1,71 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide counters for work done in hot loops, such as states expanded by a search. Solvers count locally and
+ * add the total once per run, so counting costs nothing inside the loop itself.
+ * <p>
+ * Counters are read with {@link #snapshot()}, and are also emitted every second as {@code aoc.Counter} events while
+ * a flight recording is running.
+ */
+public final class Metrics {
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    static {
+        FlightRecorder.addPeriodicEvent(CounterEvent.class, Metrics::emitCounters);
+    }
+
+    private Metrics() {
+    }
+
+    public static void add(String name, long amount) {
+        COUNTERS.computeIfAbsent(name, key -> new LongAdder()).add(amount);
+    }
+
+    /**
+     * @return current value of every counter, ordered by name
+     */
+    public static Map<String, Long> snapshot() {
+        var snapshot = new TreeMap<String, Long>();
+        COUNTERS.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(LongAdder::reset);
+    }
+
+    private static void emitCounters() {
+        snapshot().forEach((name, value) -> {
+            var event = new CounterEvent();
+            event.name = name;
+            event.value = value;
+            event.commit();
+        });
+    }
+
+    @Name("aoc.Counter")
+    @Label("Solver Counter")
+    @Category("Advent of Code")
+    @Description("Current value of a hot loop counter")
+    @StackTrace(false)
+    @Period("1 s")
+    static class CounterEvent extends Event {
+        @Label("Name")
+        String name;
+
+        @Label("Value")
+        long value;
+    }
+}
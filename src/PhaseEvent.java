@@ -0,0 +1,36 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * Flight Recorder event covering one phase of a day, committed by every {@link Solver} built with
+ * {@link Solver#of}. Record with {@code java -XX:StartFlightRecording=filename=aoc.jfr Runner} and look for
+ * {@code aoc.Phase} events.
+ */
+@Name("aoc.Phase")
+@Label("Solver Phase")
+@Category("Advent of Code")
+@Description("Parse, part 1 or part 2 of one day")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+    @Label("Day")
+    int day;
+
+    @Label("Phase")
+    String phase;
+
+    static <T> T record(int day, String phase, Supplier<T> action) {
+        var event = new PhaseEvent();
+        event.begin();
+        var result = action.get();
+        event.day = day;
+        event.phase = phase;
+        event.commit();
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Set of 2D points packed with {@link Points#pack(int, int)}, which also tracks the bounding box of the points
+ * added to it. Bounds only grow, removing a point does not shrink them.
+ */
+public class PointSet extends LongSet {
+    private int minX = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+
+    public PointSet() {
+        super();
+    }
+
+    public PointSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    private PointSet(PointSet other) {
+        super(other);
+        minX = other.minX;
+        maxX = other.maxX;
+        minY = other.minY;
+        maxY = other.maxY;
+    }
+
+    @Override
+    public PointSet copy() {
+        return new PointSet(this);
+    }
+
+    public boolean add(int x, int y) {
+        return add(Points.pack(x, y));
+    }
+
+    @Override
+    public boolean add(long point) {
+        var x = Points.x(point);
+        var y = Points.y(point);
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+        return super.add(point);
+    }
+
+    public boolean contains(int x, int y) {
+        return contains(Points.pack(x, y));
+    }
+
+    public boolean remove(int x, int y) {
+        return remove(Points.pack(x, y));
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        minX = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+
+    public int minX() {
+        return minX;
+    }
+
+    public int maxX() {
+        return maxX;
+    }
+
+    public int minY() {
+        return minY;
+    }
+
+    public int maxY() {
+        return maxY;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Packs integer coordinates into a single long, to be stored in {@link LongSet} and {@link LongLongMap}.
+ * <p>
+ * 2D points keep both coordinates as full ints. 3D points use 21 bits per coordinate, which covers
+ * -1048576..1048575 on every axis.
+ */
+public final class Points {
+    private static final int BITS_3D = 21;
+    private static final long MASK_3D = (1L << BITS_3D) - 1;
+
+    private Points() {
+    }
+
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    public static int x(long point) {
+        return (int) (point >> 32);
+    }
+
+    public static int y(long point) {
+        return (int) point;
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((x & MASK_3D) << (2 * BITS_3D)) | ((y & MASK_3D) << BITS_3D) | (z & MASK_3D);
+    }
+
+    public static int x3(long point) {
+        return (int) (point << (64 - 3 * BITS_3D) >> (64 - BITS_3D));
+    }
+
+    public static int y3(long point) {
+        return (int) (point << (64 - 2 * BITS_3D) >> (64 - BITS_3D));
+    }
+
+    public static int z3(long point) {
+        return (int) (point << (64 - BITS_3D) >> (64 - BITS_3D));
+    }
+}
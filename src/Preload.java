@@ -0,0 +1,36 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Loads every solver and runs it once on its shipped input, so that all application and JDK classes a solver
+ * touches are loaded and linked. Used as the training run of the class-data-sharing archive built by {@code aoc.sh},
+ * which later JVMs map instead of loading and verifying the same classes again.
+ * <p>
+ * Usage: {@code java -XX:ArchiveClassesAtExit=aoc.jsa Preload [day...]}
+ */
+public class Preload {
+    public static void main(String[] args) throws IOException {
+        var solvers = args.length == 0 ? Solvers.all() : Arrays.stream(args)
+            .map(Integer::parseInt)
+            .<Solver<?>>map(Solvers::get)
+            .toList();
+
+        var loaded = 0;
+        for (var solver : solvers) {
+            if (Files.exists(Solvers.inputPath(solver.day()))) {
+                run(solver, Input.map(Solvers.inputPath(solver.day())));
+                loaded++;
+            } else {
+                System.err.printf("Day %02d: no input, its classes are not archived%n", solver.day());
+            }
+        }
+        System.out.printf("Ran %d of %d solvers%n", loaded, solvers.size());
+    }
+
+    private static <T> void run(Solver<T> solver, Input input) {
+        var parsed = solver.parse(input);
+        String.valueOf(solver.part1(parsed));
+        String.valueOf(solver.part2(parsed));
+    }
+}
@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the answers of {@link Day04.RangeIndex} with plain scans over all ranges of a Day 4 input, for random
+ * queries spanning the sections in use and their surroundings.
+ * <p>
+ * Usage: {@code java RangeIndexCheck [--queries 10000] [--seed 2022] [input]}, exits with 1 on any disagreement.
+ * The scans are linear per query and quadratic for the depth, so they suit the shipped and small generated inputs.
+ */
+public class RangeIndexCheck {
+    // Covered sections are only counted one by one when the ranges span at most this many
+    private static final long MAX_SCANNED_SECTIONS = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        var queries = 10_000;
+        var seed = 2022L;
+        var path = Solvers.inputPath(4);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--queries" -> queries = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> path = Path.of(args[i]);
+            }
+        }
+
+        var ranges = Day04.ranges(Day04.parse(Input.map(path)));
+        var index = Day04.RangeIndex.of(ranges);
+        var low = ranges.stream().mapToInt(Day04.Range::min).min().orElse(0);
+        var high = ranges.stream().mapToInt(Day04.Range::max).max().orElse(0);
+
+        var failures = 0;
+        var random = new Random(seed);
+        for (int i = 0; i < queries; i++) {
+            var a = randomSection(random, low, high);
+            var b = randomSection(random, low, high);
+            failures += checkOverlapping(index, ranges, new Day04.Range(Math.min(a, b), Math.max(a, b)));
+        }
+        failures += checkDepth(index, ranges);
+        if ((long) high - low < MAX_SCANNED_SECTIONS) failures += checkCovered(index, ranges, low, high);
+
+        System.out.printf("%d ranges, %d queries, %d failures%n", ranges.size(), queries, failures);
+        if (failures > 0) System.exit(1);
+    }
+
+    /**
+     * @return a section in use or just outside, sometimes one of the extreme int values
+     */
+    private static int randomSection(Random random, int low, int high) {
+        return switch (random.nextInt(16)) {
+            case 0 -> Integer.MIN_VALUE;
+            case 1 -> Integer.MAX_VALUE;
+            default -> (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE,
+                low - 2L + (long) (random.nextDouble() * ((long) high - low + 5))));
+        };
+    }
+
+    private static int checkOverlapping(Day04.RangeIndex index, List<Day04.Range> ranges, Day04.Range query) {
+        var scanned = new ArrayList<Integer>();
+        for (int id = 0; id < ranges.size(); id++) {
+            if (ranges.get(id).overlaps(query)) scanned.add(id);
+        }
+        var reported = new ArrayList<Integer>();
+        index.forEachOverlapping(query.min(), query.max(), reported::add);
+        reported.sort(null);
+
+        var count = index.countOverlapping(query.min(), query.max());
+        if (count == scanned.size() && reported.equals(scanned)) return 0;
+
+        System.out.printf("%d-%d: index counts %d and reports %d ranges, a scan finds %d%n",
+            query.min(), query.max(), count, reported.size(), scanned.size());
+        return 1;
+    }
+
+    /**
+     * The deepest section is the start of some range, so the scan counts the ranges containing every start.
+     */
+    private static int checkDepth(Day04.RangeIndex index, List<Day04.Range> ranges) {
+        var depth = 0;
+        for (var range : ranges) {
+            var start = new Day04.Range(range.min(), range.min());
+            depth = Math.max(depth, (int) ranges.stream().filter(other -> other.overlaps(start)).count());
+        }
+        if (index.maxDepth() == depth) return 0;
+
+        System.out.printf("Index depth %d, a scan finds %d%n", index.maxDepth(), depth);
+        return 1;
+    }
+
+    private static int checkCovered(Day04.RangeIndex index, List<Day04.Range> ranges, int low, int high) {
+        var covered = 0L;
+        for (long section = low; section <= high; section++) {
+            var point = new Day04.Range((int) section, (int) section);
+            if (ranges.stream().anyMatch(range -> range.overlaps(point))) covered++;
+        }
+        if (index.coveredSections() == covered) return 0;
+
+        System.out.printf("Index covers %d sections, a scan finds %d%n", index.coveredSections(), covered);
+        return 1;
+    }
+}
@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Answers of previous runs, keyed by the SHA-256 of the day, a fingerprint of the solver and the input bytes, so any
+ * change to the input or to the solver classes makes for a new key.
+ * <p>
+ * Recently used answers are kept in memory, all of them are also stored on disk, one file per key. The disk tier is
+ * bounded in bytes and evicts the least recently used files first, recency being the modification time that every
+ * hit refreshes.
+ * <p>
+ * The fingerprint covers every class file of the build, the solvers as well as shared helpers such as {@link Input}
+ * that answers depend on, so a rebuild with any changed class makes for new keys for all days.
+ */
+public final class ResultCache {
+    private static final long DEFAULT_MAX_DISK_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_MAX_MEMORY_ENTRIES = 1024;
+    private static final HexFormat HEX = HexFormat.of();
+    // Younger temporary files may still be written by another process sharing the directory
+    private static final long STALE_TEMPORARY_MILLIS = 60L * 60 * 1000;
+
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, Answers> memory;
+    private final byte[] fingerprint;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    public ResultCache(Path directory, long maxDiskBytes, int maxMemoryEntries) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxDiskBytes = maxDiskBytes;
+        this.fingerprint = fingerprint();
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Answers> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+        // Temporary files are renamed to their key once written, eviction never considers them. One that is still
+        // there after a while was left by a writer that failed, it would only take up room, so it is deleted.
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                if (!isTemporary(file)) {
+                    diskBytes.addAndGet(sizeOf(file));
+                } else if (modifiedTime(file).toMillis() < System.currentTimeMillis() - STALE_TEMPORARY_MILLIS) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    public static ResultCache open() throws IOException {
+        return new ResultCache(defaultDirectory(), DEFAULT_MAX_DISK_BYTES, DEFAULT_MAX_MEMORY_ENTRIES);
+    }
+
+    /**
+     * @return the directory from the {@code aoc.cache.dir} system property, or {@code ~/.cache/aoc-2022}
+     */
+    public static Path defaultDirectory() {
+        var configured = System.getProperty("aoc.cache.dir");
+        return configured != null ? Path.of(configured)
+            : Path.of(System.getProperty("user.home"), ".cache", "aoc-2022");
+    }
+
+    /**
+     * Looks up the answers for the input. The key is returned either way, so a miss can be stored with
+     * {@link #put(String, Object, Object)} once it has been solved.
+     */
+    public Lookup lookup(int day, Input input) {
+        var key = key(day, input);
+        Answers answers;
+        synchronized (memory) {
+            answers = memory.get(key);
+        }
+        if (answers != null) return new Lookup(key, Status.MEMORY_HIT, answers);
+
+        answers = readFromDisk(key);
+        if (answers == null) return new Lookup(key, Status.MISS, null);
+
+        synchronized (memory) {
+            memory.put(key, answers);
+        }
+        return new Lookup(key, Status.DISK_HIT, answers);
+    }
+
+    public void put(String key, Object part1, Object part2) {
+        var answers = new Answers(String.valueOf(part1), String.valueOf(part2));
+        synchronized (memory) {
+            memory.put(key, answers);
+        }
+        writeToDisk(key, answers);
+    }
+
+    private String key(int day, Input input) {
+        var digest = sha256();
+        digest.update(fingerprint);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(day).flip());
+        return HEX.formatHex(input.digest(digest));
+    }
+
+    /**
+     * Hashes the name and bytes of every class file where this class was loaded from, a directory or a jar, in name
+     * order.
+     */
+    private static byte[] fingerprint() throws IOException {
+        var source = ResultCache.class.getProtectionDomain().getCodeSource();
+        if (source == null) throw new IllegalStateException("Unknown location of the solver classes");
+
+        var digest = sha256();
+        try {
+            var location = Path.of(source.getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                try (var files = Files.walk(location)) {
+                    var classes = files.filter(file -> file.toString().endsWith(".class")).sorted().toList();
+                    for (var file : classes) {
+                        digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(file));
+                    }
+                }
+            } else {
+                try (var jar = new JarFile(location.toFile())) {
+                    var entries = jar.stream()
+                        .filter(entry -> entry.getName().endsWith(".class"))
+                        .sorted(Comparator.comparing(JarEntry::getName))
+                        .toList();
+                    for (var entry : entries) {
+                        digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                        try (var bytes = jar.getInputStream(entry)) {
+                            digest.update(bytes.readAllBytes());
+                        }
+                    }
+                }
+            }
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unknown location of the solver classes", e);
+        }
+        return digest.digest();
+    }
+
+    private Answers readFromDisk(String key) {
+        var file = directory.resolve(key);
+        try {
+            var buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            var answers = new Answers(readString(buffer), readString(buffer));
+            if (buffer.hasRemaining()) throw new IllegalArgumentException("Trailing bytes");
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return answers;
+        } catch (IOException e) {
+            // Missing, or evicted by another process in the meantime
+            return null;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Truncated or corrupt, solved again and replaced like a miss
+            System.err.println("Dropping corrupt cache entry " + key + ": " + e);
+            delete(file);
+            return null;
+        }
+    }
+
+    private void delete(Path file) {
+        var size = sizeOf(file);
+        if (deleteQuietly(file)) diskBytes.addAndGet(-size);
+    }
+
+    /**
+     * @return whether the file was deleted by this call
+     */
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeToDisk(String key, Answers answers) {
+        var part1 = answers.part1.getBytes(StandardCharsets.UTF_8);
+        var part2 = answers.part2.getBytes(StandardCharsets.UTF_8);
+        var content = ByteBuffer.allocate(2 * Integer.BYTES + part1.length + part2.length)
+            .putInt(part1.length)
+            .put(part1)
+            .putInt(part2.length)
+            .put(part2)
+            .array();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporary, content);
+            var file = directory.resolve(key);
+            var previous = sizeOf(file);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temporary = null;
+            if (diskBytes.addAndGet(content.length - previous) > maxDiskBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            // The cache is an optimization, an answer that cannot be stored is simply computed again next time
+            System.err.println("Could not cache " + key + ": " + e.getMessage());
+        } finally {
+            if (temporary != null) deleteQuietly(temporary);
+        }
+    }
+
+    private synchronized void evict() throws IOException {
+        if (diskBytes.get() <= maxDiskBytes) return;
+
+        try (var files = Files.list(directory)) {
+            var oldestFirst = files
+                .filter(file -> !isTemporary(file))
+                .sorted(Comparator.comparing(ResultCache::modifiedTime))
+                .toList();
+            for (var file : oldestFirst) {
+                if (diskBytes.get() <= maxDiskBytes) break;
+
+                var size = sizeOf(file);
+                if (Files.deleteIfExists(file)) {
+                    diskBytes.addAndGet(-size);
+                }
+            }
+        }
+    }
+
+    private static boolean isTemporary(Path file) {
+        return file.getFileName().toString().endsWith(".tmp");
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("String length " + length);
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime modifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be available", e);
+        }
+    }
+
+    public enum Status {
+        DISABLED("-"), MISS("miss"), MEMORY_HIT("memory"), DISK_HIT("disk");
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    public record Lookup(String key, Status status, Answers answers) {
+    }
+
+    public record Answers(String part1, String part2) {
+    }
+}
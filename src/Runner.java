@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs all days in a single JVM. Days are independent and run concurrently on a work-stealing pool, while
+ * parse, part 1 and part 2 of one day run in order within the same task.
+ * <p>
+ * Usage: {@code java Runner [--cache] [day...]}
+ * <p>
+ * CPU time is measured on the thread running the day, work a day hands off to parallel streams is not included.
+ * Hot loop counters collected in {@link Metrics} are printed after the timings.
+ * <p>
+ * With {@code --cache} answers are looked up in the {@link ResultCache} first. The parse column then holds the time
+ * of the lookup on a hit, and includes it on a miss.
+ */
+public class Runner {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        var cache = args.length > 0 && args[0].equals("--cache") ? ResultCache.open() : null;
+        var days = cache == null ? args : Arrays.copyOfRange(args, 1, args.length);
+        var solvers = days.length == 0 ? Solvers.all() : Arrays.stream(days)
+            .map(Integer::parseInt)
+            .<Solver<?>>map(Solvers::get)
+            .toList();
+
+        var pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        var start = System.nanoTime();
+        var tasks = solvers.stream()
+            .map(solver -> pool.submit(() -> run(solver, cache)))
+            .toList();
+        var results = tasks.stream()
+            .map(ForkJoinTask::join)
+            .toList();
+        var wallTime = System.nanoTime() - start;
+        pool.shutdown();
+
+        print(results, wallTime);
+    }
+
+    static <T> DayResult run(Solver<T> solver, ResultCache cache) {
+        try {
+            return run(solver, Input.map(Solvers.inputPath(solver.day())), cache);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param cache where answers are looked up and stored, or null to always solve
+     */
+    static <T> DayResult run(Solver<T> solver, Input input, ResultCache cache) {
+        if (cache == null) return run(solver, input, ResultCache.Status.DISABLED);
+
+        var lookup = Timed.measure(() -> cache.lookup(solver.day(), input));
+        var found = lookup.value.answers();
+        if (found != null) {
+            return new DayResult(solver.day(), new Timed<>(null, lookup.wallNanos, lookup.cpuNanos),
+                new Timed<>(found.part1(), 0, 0), new Timed<>(found.part2(), 0, 0), lookup.value.status());
+        }
+
+        var result = run(solver, input, ResultCache.Status.MISS);
+        cache.put(lookup.value.key(), result.part1.value, result.part2.value);
+        var parse = new Timed<>(result.parse.value, result.parse.wallNanos + lookup.wallNanos,
+            result.parse.cpuNanos + lookup.cpuNanos);
+        return new DayResult(result.day, parse, result.part1, result.part2, result.cache);
+    }
+
+    private static <T> DayResult run(Solver<T> solver, Input input, ResultCache.Status cache) {
+        var parse = Timed.measure(() -> solver.parse(input));
+        var part1 = Timed.measure(() -> solver.part1(parse.value));
+        var part2 = Timed.measure(() -> solver.part2(parse.value));
+        return new DayResult(solver.day(), parse, part1, part2, cache);
+    }
+
+    static void print(List<DayResult> results, long wallTime) {
+        for (var result : results) {
+            System.out.printf("Day %02d%n%s%n%s%n", result.day, result.part1.value, result.part2.value);
+        }
+        System.out.println();
+        report(results, wallTime);
+    }
+
+    private static void report(List<DayResult> results, long wallTime) {
+        System.out.printf("%-4s %21s %21s %21s %21s  %s%n", "Day", "parse wall/cpu ms", "part1 wall/cpu ms",
+            "part2 wall/cpu ms", "total wall/cpu ms", "cache");
+        var cpuTime = 0L;
+        var cacheCounts = new EnumMap<ResultCache.Status, Integer>(ResultCache.Status.class);
+        for (var result : results) {
+            System.out.printf("%-4d %21s %21s %21s %21s  %s%n", result.day, result.parse.format(),
+                result.part1.format(), result.part2.format(), Timed.format(result.wallNanos(), result.cpuNanos()),
+                result.cache.label());
+            cpuTime += result.cpuNanos();
+            cacheCounts.merge(result.cache, 1, Integer::sum);
+        }
+        System.out.printf("Batch: %.3f ms wall, %.3f ms cpu%n", wallTime / 1e6, cpuTime / 1e6);
+        if (!cacheCounts.containsKey(ResultCache.Status.DISABLED)) {
+            System.out.printf("Cache: %d memory hits, %d disk hits, %d misses%n",
+                cacheCounts.getOrDefault(ResultCache.Status.MEMORY_HIT, 0),
+                cacheCounts.getOrDefault(ResultCache.Status.DISK_HIT, 0),
+                cacheCounts.getOrDefault(ResultCache.Status.MISS, 0));
+        }
+
+        var metrics = Metrics.snapshot();
+        if (!metrics.isEmpty()) {
+            System.out.println();
+            metrics.forEach((name, value) -> System.out.printf("%-21s %d%n", name, value));
+        }
+    }
+
+    record DayResult(int day, Timed<?> parse, Timed<?> part1, Timed<?> part2, ResultCache.Status cache) {
+        long wallNanos() {
+            return parse.wallNanos + part1.wallNanos + part2.wallNanos;
+        }
+
+        long cpuNanos() {
+            return parse.cpuNanos + part1.cpuNanos + part2.cpuNanos;
+        }
+    }
+
+    record Timed<T>(T value, long wallNanos, long cpuNanos) {
+        static <T> Timed<T> measure(Supplier<T> phase) {
+            var cpuStart = THREADS.getCurrentThreadCpuTime();
+            var wallStart = System.nanoTime();
+            var value = phase.get();
+            var wallTime = System.nanoTime() - wallStart;
+            var cpuTime = THREADS.getCurrentThreadCpuTime() - cpuStart;
+            return new Timed<>(value, wallTime, cpuTime);
+        }
+
+        static String format(long wallNanos, long cpuNanos) {
+            return "%.3f/%.3f".formatted(wallNanos / 1e6, cpuNanos / 1e6);
+        }
+
+        String format() {
+            return format(wallNanos, cpuNanos);
+        }
+    }
+}
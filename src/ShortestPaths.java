@@ -0,0 +1,232 @@
+import java.util.Arrays;
+
+/**
+ * Single-source shortest paths for graphs over int node ids with small non-negative integer edge weights. Instead of a
+ * binary heap it uses a bucket queue (Dial's algorithm): a ring of int arrays, one bucket per distance, with room for
+ * the {@code maxWeight + 1} distances that can be queued at the same time. Pushing and polling are array accesses.
+ * A node found again over a shorter path is pushed once more and its older entry skipped when it comes up.
+ * <p>
+ * The scratch arrays are kept and only grow, so an instance searching many sources of the same graph allocates
+ * nothing after the first search. Instances are not thread-safe, use one per thread.
+ */
+public class ShortestPaths {
+    public static final int UNREACHABLE = -1;
+
+    private int[][] buckets = new int[0][];
+    private int[] sizes = new int[0];
+    private int[] targets = new int[0];
+    private int[] weights = new int[0];
+    private int[] queue = new int[0];
+
+    /**
+     * Edges given by the graph itself, so they may be computed on the fly instead of stored.
+     */
+    public interface Graph {
+        int nodes();
+
+        int maxDegree();
+
+        int maxWeight();
+
+        /**
+         * Whether every edge weighs exactly one, so the graph is searched breadth-first without buckets and
+         * {@link #edges} need not write the weights.
+         */
+        default boolean unitWeights() {
+            return false;
+        }
+
+        /**
+         * Writes the edges leaving {@code node} to the start of {@code targets} and {@code weights}, which hold at
+         * least {@link #maxDegree()} elements.
+         *
+         * @return number of edges written
+         */
+        int edges(int node, int[] targets, int[] weights);
+    }
+
+    /**
+     * @return distance from {@code source} to every node, {@link #UNREACHABLE} if there is no path
+     */
+    public int[] from(Graph graph, int source) {
+        var distances = new int[graph.nodes()];
+        from(graph, source, distances);
+        return distances;
+    }
+
+    /**
+     * Like {@link #from(Graph, int)}, writing the distances to the first {@code graph.nodes()} elements of
+     * {@code distances}.
+     */
+    public void from(Graph graph, int source, int[] distances) {
+        if (graph.unitWeights()) {
+            breadthFirst(graph, source, distances);
+            return;
+        }
+
+        // Queued distances span at most maxWeight + 1 values, so they never share a bucket
+        var mask = Integer.highestOneBit(Math.max(1, graph.maxWeight())) * 2 - 1;
+        prepare(mask + 1, graph.maxDegree());
+        Arrays.fill(distances, 0, graph.nodes(), UNREACHABLE);
+
+        distances[source] = 0;
+        push(0, source);
+        var queued = 1;
+        for (int distance = 0; queued > 0; distance++) {
+            var bucket = distance & mask;
+            // Drained in the order of queueing, zero weight edges append to the bucket being drained
+            for (int i = 0; i < sizes[bucket]; i++) {
+                var node = buckets[bucket][i];
+                queued--;
+                // Left behind when a shorter path queued the node again
+                if (distances[node] != distance) continue;
+
+                var edges = graph.edges(node, targets, weights);
+                for (int edge = 0; edge < edges; edge++) {
+                    var target = targets[edge];
+                    var candidate = distance + weights[edge];
+                    var known = distances[target];
+                    if (known == UNREACHABLE || candidate < known) {
+                        distances[target] = candidate;
+                        push(candidate & mask, target);
+                        queued++;
+                    }
+                }
+            }
+            sizes[bucket] = 0;
+        }
+    }
+
+    /**
+     * Every node is queued at most once, when it is first reached, in order of distance. The queue holds one level
+     * after the other, so distances are counted per level instead of read back for every node.
+     */
+    private void breadthFirst(Graph graph, int source, int[] distances) {
+        prepare(1, graph.maxDegree());
+        if (queue.length < graph.nodes()) queue = new int[graph.nodes()];
+        Arrays.fill(distances, 0, graph.nodes(), UNREACHABLE);
+
+        distances[source] = 0;
+        queue[0] = source;
+        var tail = 1;
+        var candidate = 1;
+        for (int head = 0, levelEnd = 1; head < tail; head++) {
+            if (head == levelEnd) {
+                levelEnd = tail;
+                candidate++;
+            }
+            var edges = graph.edges(queue[head], targets, weights);
+            for (int edge = 0; edge < edges; edge++) {
+                var target = targets[edge];
+                if (distances[target] != UNREACHABLE) continue;
+                distances[target] = candidate;
+                queue[tail++] = target;
+            }
+        }
+    }
+
+    private void prepare(int bucketCount, int maxDegree) {
+        if (buckets.length < bucketCount) {
+            var grown = Arrays.copyOf(buckets, bucketCount);
+            for (int bucket = buckets.length; bucket < bucketCount; bucket++) {
+                grown[bucket] = new int[16];
+            }
+            buckets = grown;
+            sizes = new int[bucketCount];
+        }
+        Arrays.fill(sizes, 0);
+        if (targets.length < maxDegree) {
+            targets = new int[maxDegree];
+            weights = new int[maxDegree];
+        }
+    }
+
+    private void push(int bucket, int node) {
+        var size = sizes[bucket];
+        if (size == buckets[bucket].length) buckets[bucket] = Arrays.copyOf(buckets[bucket], 2 * size);
+        buckets[bucket][size] = node;
+        sizes[bucket] = size + 1;
+    }
+
+    /**
+     * Graph in compressed sparse row form: the edges of node {@code n} are at indices {@code offsets[n]} until
+     * {@code offsets[n + 1]} of {@code targets} and {@code weights}.
+     */
+    public record CsrGraph(int[] offsets, int[] targets, int[] weights, int maxDegree,
+                           int maxWeight) implements Graph { // NOSONAR
+        public static Builder builder(int nodes) {
+            return new Builder(nodes);
+        }
+
+        @Override
+        public int nodes() {
+            return offsets.length - 1;
+        }
+
+        @Override
+        public int edges(int node, int[] targets, int[] weights) {
+            var from = offsets[node];
+            var count = offsets[node + 1] - from;
+            System.arraycopy(this.targets, from, targets, 0, count);
+            System.arraycopy(this.weights, from, weights, 0, count);
+            return count;
+        }
+
+        /**
+         * Collects edges in any order and sorts them into rows with a counting sort on {@link #build()}.
+         */
+        public static class Builder {
+            private final int nodes;
+            private int[] sources = new int[16];
+            private int[] targets = new int[16];
+            private int[] weights = new int[16];
+            private int edges;
+
+            private Builder(int nodes) {
+                this.nodes = nodes;
+            }
+
+            public Builder addEdge(int source, int target, int weight) {
+                if (source < 0 || source >= nodes || target < 0 || target >= nodes) {
+                    throw new IndexOutOfBoundsException(
+                        "Edge " + source + " -> " + target + " outside " + nodes + " nodes");
+                }
+                if (weight < 0) throw new IllegalArgumentException("Negative weight " + weight);
+                if (edges == sources.length) {
+                    sources = Arrays.copyOf(sources, 2 * edges);
+                    targets = Arrays.copyOf(targets, 2 * edges);
+                    weights = Arrays.copyOf(weights, 2 * edges);
+                }
+                sources[edges] = source;
+                targets[edges] = target;
+                weights[edges] = weight;
+                edges++;
+                return this;
+            }
+
+            public CsrGraph build() {
+                var offsets = new int[nodes + 1];
+                for (int i = 0; i < edges; i++) {
+                    offsets[sources[i] + 1]++;
+                }
+                var maxDegree = 0;
+                for (int node = 0; node < nodes; node++) {
+                    maxDegree = Math.max(maxDegree, offsets[node + 1]);
+                    offsets[node + 1] += offsets[node];
+                }
+
+                var sortedTargets = new int[edges];
+                var sortedWeights = new int[edges];
+                var positions = Arrays.copyOf(offsets, nodes);
+                var maxWeight = 0;
+                for (int i = 0; i < edges; i++) {
+                    var position = positions[sources[i]]++;
+                    sortedTargets[position] = targets[i];
+                    sortedWeights[position] = weights[i];
+                    maxWeight = Math.max(maxWeight, weights[i]);
+                }
+                return new CsrGraph(offsets, sortedTargets, sortedWeights, maxDegree, maxWeight);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.function.Function;
+
+/**
+ * Common shape of every day: the input is parsed once and both parts are answered from the parsed form.
+ * Parsing consumes the given cursor. Parts must not modify the parsed input, so it can be reused for repeated runs.
+ * <p>
+ * Solvers created with {@link #of} emit a {@link PhaseEvent} for every phase they run.
+ */
+public interface Solver<T> {
+    int day();
+
+    T parse(Input input);
+
+    Object part1(T input);
+
+    Object part2(T input);
+
+    static <T> Solver<T> of(int day, Function<Input, T> parser, Function<T, ?> part1, Function<T, ?> part2) {
+        return new FunctionalSolver<>(day, parser, part1, part2);
+    }
+
+    record FunctionalSolver<T>(int day, Function<Input, T> parser, Function<T, ?> first,
+                               Function<T, ?> second) implements Solver<T> {
+        @Override
+        public T parse(Input input) {
+            return PhaseEvent.record(day, "parse", () -> parser.apply(input));
+        }
+
+        @Override
+        public Object part1(T input) {
+            return PhaseEvent.record(day, "part1", () -> first.apply(input));
+        }
+
+        @Override
+        public Object part2(T input) {
+            return PhaseEvent.record(day, "part2", () -> second.apply(input));
+        }
+    }
+}
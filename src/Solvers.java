@@ -0,0 +1,48 @@
+import java.nio.file.Path;
+import java.util.List;
+
+public final class Solvers {
+    private static final List<Solver<?>> ALL = List.of(
+        Solver.of(1, Day01::parse, Day01::part1, Day01::part2),
+        Solver.of(2, Day02::parse, Day02::part1, Day02::part2),
+        Solver.of(3, Day03::parse, Day03::part1, Day03::part2),
+        Solver.of(4, Day04::parse, Day04::part1, Day04::part2),
+        Solver.of(5, Day05::parse, Day05::part1, Day05::part2),
+        Solver.of(6, Day06::parse, Day06::part1, Day06::part2),
+        Solver.of(7, Day07::parse, Day07::part1, Day07::part2),
+        Solver.of(8, Day08::parse, Day08::part1, Day08::part2),
+        Solver.of(9, Day09::parse, Day09::part1, Day09::part2),
+        Solver.of(10, Day10::parse, Day10::part1, Day10::part2),
+        Solver.of(11, Day11::parse, Day11::part1, Day11::part2),
+        Solver.of(12, Day12::parse, Day12::part1, Day12::part2),
+        Solver.of(13, Day13::parse, Day13::part1, Day13::part2),
+        Solver.of(14, Day14::parse, Day14::part1, Day14::part2),
+        Solver.of(15, Day15::parse, Day15::part1, Day15::part2),
+        Solver.of(16, Day16::parse, Day16::part1, Day16::part2),
+        Solver.of(17, Day17::parse, Day17::part1, Day17::part2),
+        Solver.of(18, Day18::parse, Day18::part1, Day18::part2),
+        Solver.of(19, Day19::parse, Day19::part1, Day19::part2),
+        Solver.of(20, Day20::parse, Day20::part1, Day20::part2),
+        Solver.of(21, Day21::parse, Day21::part1, Day21::part2),
+        Solver.of(22, Day22::parse, Day22::part1, Day22::part2),
+        Solver.of(23, Day23::parse, Day23::part1, Day23::part2),
+        Solver.of(24, Day24::parse, Day24::part1, Day24::part2),
+        Solver.of(25, Day25::parse, Day25::part1, Day25::part2)
+    );
+
+    private Solvers() {
+    }
+
+    public static List<Solver<?>> all() {
+        return ALL;
+    }
+
+    public static Solver<?> get(int day) {
+        if (day < 1 || day > ALL.size()) throw new IllegalArgumentException("Unknown day: " + day);
+        return ALL.get(day - 1);
+    }
+
+    public static Path inputPath(int day) {
+        return Path.of("input%02d.txt".formatted(day));
+    }
+}
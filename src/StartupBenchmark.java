@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the wall time of complete solver JVMs, from launch to exit, without class-data sharing, with the JDK's
+ * default archive and with an application archive of all solvers built by {@link Preload}.
+ * <p>
+ * Usage: {@code java StartupBenchmark [--archive build/aoc.jsa] [--runs 10] [day...]}, days 1, 2, 4 and 6 by default.
+ * The archive is created first if it does not exist. Children use the class path of this JVM, which has to be a jar
+ * such as the {@code build/aoc.jar} of {@code aoc.sh}, and are run from the current directory holding the inputs.
+ */
+public class StartupBenchmark {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var archive = Path.of("build", "aoc.jsa");
+        var runs = 10;
+        var days = new ArrayList<Integer>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--archive" -> archive = Path.of(args[++i]);
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                default -> days.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (days.isEmpty()) days.addAll(List.of(1, 2, 4, 6));
+
+        if (Files.notExists(archive)) {
+            if (archive.getParent() != null) Files.createDirectories(archive.getParent());
+            launch(List.of("-XX:ArchiveClassesAtExit=" + archive, "-Xlog:cds=off"), "Preload");
+        }
+
+        var modes = List.of(
+            new Mode("no CDS", List.of("-Xshare:off")),
+            new Mode("JDK CDS", List.of()),
+            new Mode("AppCDS", List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:on"))
+        );
+        System.out.printf("%-4s %-8s %12s %12s%n", "Day", "Mode", "Median ms", "Min ms");
+        for (var day : days) {
+            var main = "Day%02d".formatted(day);
+            for (var mode : modes) {
+                // One run first, so the files involved are in the page cache for every mode alike
+                launch(mode.options, main);
+                var samples = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    samples[i] = launch(mode.options, main);
+                }
+                Arrays.sort(samples);
+                System.out.printf("%-4d %-8s %12.3f %12.3f%n", day, mode.name, samples[runs / 2] / 1e6,
+                    samples[0] / 1e6);
+            }
+        }
+    }
+
+    /**
+     * @return wall nanos until the child exited
+     */
+    private static long launch(List<String> options, String main) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(options);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), main));
+
+        var start = System.nanoTime();
+        var process = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        var exitCode = process.waitFor();
+        var elapsed = System.nanoTime() - start;
+        if (exitCode != 0) throw new IllegalStateException(main + " exited with " + exitCode + ": " + command);
+
+        return elapsed;
+    }
+
+    record Mode(String name, List<String> options) {
+    }
+}